@@ -35,8 +35,8 @@ public class Main {
 
 		printAllTasks(manager);
 
-		// Обновление
-		final Task task = manager.getTask(taskId2);
+		// Обновление: менеджер отдаёт задачи только для чтения, поэтому правится копия
+		final Task task = manager.getTask(taskId2).copy();
 		task.setStatus(DONE);
 		manager.updateTask(task);
 		System.out.println("CHANGE STATUS: Task2 IN_PROGRESS->DONE");
@@ -45,11 +45,11 @@ public class Main {
 			System.out.println(t);
 		}
 
-		Subtask subtask = manager.getSubtask(subtaskId2);
+		Subtask subtask = manager.getSubtask(subtaskId2).copy();
 		subtask.setStatus(DONE);
 		manager.updateSubtask(subtask);
 		System.out.println("CHANGE STATUS: Subtask2 NEW->DONE");
-		subtask = manager.getSubtask(subtaskId3);
+		subtask = manager.getSubtask(subtaskId3).copy();
 		subtask.setStatus(NEW);
 		manager.updateSubtask(subtask);
 		System.out.println("CHANGE STATUS: Subtask3 DONE->NEW");
@@ -65,7 +65,7 @@ public class Main {
 				System.out.println("--> " + t);
 			}
 		}
-		final Epic epic = manager.getEpic(epicId1);
+		final Epic epic = manager.getEpic(epicId1).copy();
 		epic.setStatus(NEW);
 		manager.updateEpic(epic);
 		System.out.println("CHANGE STATUS: Epic1 IN_PROGRESS->NEW");
@@ -4,15 +4,18 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import ru.yandex.javacourse.schedule.http.adapter.DurationAdapter;
+import ru.yandex.javacourse.schedule.http.adapter.IntLinkedHashSetAdapter;
 import ru.yandex.javacourse.schedule.http.adapter.LocalDateTimeAdapter;
 import ru.yandex.javacourse.schedule.http.handler.*;
 import ru.yandex.javacourse.schedule.manager.Managers;
 import ru.yandex.javacourse.schedule.manager.TaskManager;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
@@ -21,6 +24,7 @@ public class HttpTaskServer {
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
             .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(IntLinkedHashSet.class, new IntLinkedHashSetAdapter())
             .serializeNulls()
             .create();
 
@@ -36,6 +40,15 @@ public class HttpTaskServer {
         httpServer.createContext("/epics", new EpicsHandler(taskManager, gson));
         httpServer.createContext("/history", new HistoryHandler(taskManager, gson));
         httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        httpServer.createContext("/free-slots", new FreeSlotsHandler(taskManager, gson));
+    }
+
+    /**
+     * Сервер с пулом потоков. Менеджер должен быть потокобезопасным, например {@link Managers#getConcurrent()}.
+     */
+    public HttpTaskServer(TaskManager taskManager, Executor executor) throws IOException {
+        this(taskManager);
+        httpServer.setExecutor(executor);
     }
 
     public void start() {
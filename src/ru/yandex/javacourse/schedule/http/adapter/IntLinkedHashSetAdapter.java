@@ -0,0 +1,40 @@
+package ru.yandex.javacourse.schedule.http.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashSet;
+
+import java.io.IOException;
+
+public class IntLinkedHashSetAdapter extends TypeAdapter<IntLinkedHashSet> {
+
+    @Override
+    public void write(final JsonWriter out, final IntLinkedHashSet value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int id : value.toArray()) {
+            out.value(id);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public IntLinkedHashSet read(final JsonReader in) throws IOException {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return set;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            set.add(in.nextInt());
+        }
+        in.endArray();
+        return set;
+    }
+}
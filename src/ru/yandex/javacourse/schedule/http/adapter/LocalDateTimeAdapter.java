@@ -10,14 +10,14 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
-    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("HH:mm dd.MM.yyyy");
+    public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm dd.MM.yyyy");
 
     @Override
     public void write(final JsonWriter out, final LocalDateTime value) throws IOException {
         if (value == null) {
             out.nullValue();
         } else {
-            out.value(value.format(dtf));
+            out.value(value.format(DATE_TIME_FORMATTER));
         }
     }
 
@@ -27,6 +27,6 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
             in.nextNull();
             return null;
         }
-        return LocalDateTime.parse(in.nextString(), dtf);
+        return LocalDateTime.parse(in.nextString(), DATE_TIME_FORMATTER);
     }
 }
\ No newline at end of file
@@ -8,8 +8,11 @@ import ru.yandex.javacourse.schedule.manager.TimeConflictException;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     protected static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
@@ -50,6 +53,24 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendError(exchange, "Operation is not supported", 404);
     }
 
+    protected Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int idx = pair.indexOf('=');
+            if (idx <= 0) {
+                continue;
+            }
+            String key = URLDecoder.decode(pair.substring(0, idx), DEFAULT_CHARSET);
+            String value = URLDecoder.decode(pair.substring(idx + 1), DEFAULT_CHARSET);
+            params.put(key, value);
+        }
+        return params;
+    }
+
     protected void sendText(HttpExchange h, String text, int rCode) throws IOException {
         byte[] resp = text.getBytes(DEFAULT_CHARSET);
 
@@ -0,0 +1,55 @@
+package ru.yandex.javacourse.schedule.http.handler;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.javacourse.schedule.http.adapter.LocalDateTimeAdapter;
+import ru.yandex.javacourse.schedule.manager.TaskManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+public class FreeSlotsHandler extends BaseHttpHandler {
+    private static final int DEFAULT_LIMIT = 1;
+
+    private final TaskManager taskManager;
+    private final Gson gson;
+
+    public FreeSlotsHandler(TaskManager taskManager, Gson gson) {
+        this.taskManager = taskManager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handleGet(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange);
+        String from = params.get("from");
+        String to = params.get("to");
+        String duration = params.get("duration");
+        if (from == null || to == null || duration == null) {
+            sendError(exchange, "Bad Request", 400);
+            return;
+        }
+
+        LocalDateTime fromTime;
+        LocalDateTime toTime;
+        try {
+            fromTime = LocalDateTime.parse(from, LocalDateTimeAdapter.DATE_TIME_FORMATTER);
+            toTime = LocalDateTime.parse(to, LocalDateTimeAdapter.DATE_TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            sendError(exchange, "Invalid date", 400);
+            return;
+        }
+        long minutes = Long.parseLong(duration);
+        int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : DEFAULT_LIMIT;
+        if (minutes <= 0 || limit <= 0) {
+            sendError(exchange, "Bad Request", 400);
+            return;
+        }
+
+        String dataJson = gson.toJson(taskManager.getFreeSlots(fromTime, toTime, Duration.ofMinutes(minutes), limit));
+        sendText(exchange, dataJson, 200);
+    }
+}
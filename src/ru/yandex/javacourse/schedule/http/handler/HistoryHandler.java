@@ -5,6 +5,7 @@ import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.javacourse.schedule.manager.TaskManager;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class HistoryHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
@@ -17,7 +18,16 @@ public class HistoryHandler extends BaseHttpHandler {
 
     @Override
     public void handleGet(HttpExchange exchange) throws IOException {
-        String dataJson = gson.toJson(taskManager.getHistory());
-        sendText(exchange, dataJson, 200);
+        Map<String, String> params = parseQuery(exchange);
+        if (!params.containsKey("limit")) {
+            sendText(exchange, gson.toJson(taskManager.getHistory()), 200);
+            return;
+        }
+        int limit = Integer.parseInt(params.get("limit"));
+        if (limit <= 0) {
+            sendError(exchange, "Bad Request", 400);
+            return;
+        }
+        sendText(exchange, gson.toJson(taskManager.getHistory(limit)), 200);
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashMap;
+
+/**
+ * История на параллельных массивах: id, ссылки на соседей и задача лежат в IntLinkedHashMap,
+ * без Node, записи HashMap и Integer на каждый просмотр. Повторный просмотр только перевязывает
+ * ячейку в конец списка, хеш-таблица при этом не трогается; ячейки удалённых и вытесненных
+ * записей переиспользуются. Поэтому addTask и remove работают за O(1) и в установившемся
+ * режиме не создают объектов (кроме копии незамороженной задачи, как и в InMemoryHistoryManager).
+ * Запись - это id и версия задачи: замороженный объект, который хранит менеджер.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+	private final IntLinkedHashMap<Task> entries = new IntLinkedHashMap<>();
+	private final int capacity;
+
+	/**
+	 * История без ограничения размера.
+	 */
+	public ArrayHistoryManager() {
+		this.capacity = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param capacity сколько последних просмотров хранить
+	 */
+	public ArrayHistoryManager(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("History capacity must be positive");
+		}
+		this.capacity = capacity;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public List<Task> getHistory() {
+		return new ArrayList<>(entries.values());
+	}
+
+	@Override
+	public List<Task> getHistory(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("History limit must not be negative");
+		}
+		List<Task> tasks = new ArrayList<>(Math.min(limit, entries.size()));
+		entries.forEachLast(limit, tasks::add);
+		return tasks;
+	}
+
+	@Override
+	public void addTask(Task task) {
+		if (task == null) {
+			return;
+		}
+
+		entries.putLast(task.getId(), InMemoryHistoryManager.frozenVersion(task));
+		if (entries.size() > capacity) {
+			entries.remove(entries.firstKey());
+		}
+	}
+
+	/**
+	 * put существующего ключа меняет значение без смены позиции.
+	 */
+	@Override
+	public void replace(Task task) {
+		if (entries.containsKey(task.getId())) {
+			entries.put(task.getId(), InMemoryHistoryManager.frozenVersion(task));
+		}
+	}
+
+	@Override
+	public void remove(int id) {
+		entries.remove(id);
+	}
+}
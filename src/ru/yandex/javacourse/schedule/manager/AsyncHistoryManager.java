@@ -0,0 +1,229 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ru.yandex.javacourse.schedule.tasks.Task;
+
+/**
+ * История, в которую просмотры записываются асинхронно: addTask только кладёт задачу
+ * в ограниченную очередь (кольцевой буфер с несколькими писателями и одним читателем),
+ * а в упорядоченный список её переносит фоновый поток. Если очередь заполнена, просмотр
+ * отбрасывается и учитывается в getDroppedViews(): при перегрузке теряется перемещение
+ * записи в конец истории, но чтение задачи не замедляется.
+ * <p>
+ * getHistory, replace и remove сначала сами разбирают очередь, поэтому видят все просмотры,
+ * завершившиеся до их вызова (кроме отброшенных). Класс потокобезопасен.
+ * close() останавливает фоновый поток; после него просмотры записываются синхронно.
+ */
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicReferenceArray<Task> buffer;
+	private final int mask;
+	// Следующий свободный номер; ячейка номера n - buffer[n & mask]
+	private final AtomicLong tail = new AtomicLong();
+	// Следующий номер для разбора; меняется только под drainLock
+	private volatile long head;
+	private final LongAdder dropped = new LongAdder();
+	private final ReentrantLock drainLock = new ReentrantLock();
+	private final ArrayHistoryManager history;
+	private final Thread consumer;
+	private volatile boolean closed;
+
+	/**
+	 * @param queueCapacity сколько просмотров может ждать записи; округляется вверх до степени двойки
+	 */
+	public AsyncHistoryManager(int queueCapacity) {
+		this(queueCapacity, new ArrayHistoryManager());
+	}
+
+	/**
+	 * @param queueCapacity сколько просмотров может ждать записи; округляется вверх до степени двойки
+	 * @param historyCapacity сколько последних просмотров хранить
+	 */
+	public AsyncHistoryManager(int queueCapacity, int historyCapacity) {
+		this(queueCapacity, new ArrayHistoryManager(historyCapacity));
+	}
+
+	private AsyncHistoryManager(int queueCapacity, ArrayHistoryManager history) {
+		if (queueCapacity <= 0 || queueCapacity > 1 << 30) {
+			throw new IllegalArgumentException("Queue capacity must be between 1 and 2^30");
+		}
+		int size = queueCapacity == 1 ? 1 : Integer.highestOneBit(queueCapacity - 1) << 1;
+		this.buffer = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.history = history;
+		this.consumer = new Thread(this::run, "history-consumer");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	public int getQueueCapacity() {
+		return buffer.length();
+	}
+
+	public int getCapacity() {
+		return history.getCapacity();
+	}
+
+	/**
+	 * Сколько просмотров отброшено из-за заполненной очереди с момента создания.
+	 */
+	public long getDroppedViews() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Сколько просмотров принято, но ещё не перенесено в историю.
+	 */
+	public int getQueueDepth() {
+		return (int) (tail.get() - head);
+	}
+
+	@Override
+	public void addTask(Task task) {
+		if (task == null) {
+			return;
+		}
+
+		Task stored = InMemoryHistoryManager.frozenVersion(task);
+		if (closed) {
+			drainLock.lock();
+			try {
+				drainBuffer();
+				history.addTask(stored);
+			} finally {
+				drainLock.unlock();
+			}
+			return;
+		}
+
+		// Номер занимается, только если в очереди есть место: иначе просмотр отбрасывается, а не ждёт
+		long position;
+		do {
+			position = tail.get();
+			if (position - head > mask) {
+				dropped.increment();
+				return;
+			}
+		} while (!tail.compareAndSet(position, position + 1));
+		buffer.setRelease((int) position & mask, stored);
+
+		if (position - head == buffer.length() / 2) {
+			// Очередь заполнена наполовину: будим поток, не дожидаясь конца его паузы
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	@Override
+	public List<Task> getHistory() {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			return history.getHistory();
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	@Override
+	public List<Task> getHistory(int limit) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			return history.getHistory(limit);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	/**
+	 * Очередь разбирается до замены, иначе более ранний просмотр вернул бы в историю старую версию.
+	 */
+	@Override
+	public void replace(Task task) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			history.replace(task);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	@Override
+	public void remove(int id) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			history.remove(id);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	private void run() {
+		while (!closed) {
+			int drained;
+			drainLock.lock();
+			try {
+				drained = drainBuffer();
+			} finally {
+				drainLock.unlock();
+			}
+			if (drained == 0) {
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Переносит опубликованные просмотры в историю по порядку номеров. Останавливается на первой
+	 * ещё не заполненной ячейке: её просмотр не завершился, и он попадёт в следующий разбор.
+	 *
+	 * @return сколько просмотров перенесено
+	 */
+	private int drainBuffer() {
+		long start = head;
+		long position = start;
+		while (true) {
+			int index = (int) position & mask;
+			Task task = buffer.getAcquire(index);
+			if (task == null) {
+				break;
+			}
+			buffer.setPlain(index, null);
+			history.addTask(task);
+			position++;
+		}
+		// Запись head публикует очистку ячеек для следующего круга буфера
+		head = position;
+		return (int) (position - start);
+	}
+
+	/**
+	 * Останавливает фоновый поток и переносит в историю всё, что осталось в очереди.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(consumer);
+		try {
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drainLock.lock();
+		try {
+			drainBuffer();
+		} finally {
+			drainLock.unlock();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ru.yandex.javacourse.schedule.tasks.Task;
+
+/**
+ * Потокобезопасная история, в которой просмотр не берёт общую блокировку.
+ * addTask занимает номер в кольцевом буфере одним getAndIncrement и публикует задачу в ячейку;
+ * упорядоченный список (ArrayHistoryManager) меняет только тот, кто разбирает буфер под drainLock.
+ * Разбор идёт пачками: его делает просмотр, заполнивший буфер наполовину, если блокировка свободна,
+ * а также getHistory, replace и remove перед своей операцией. Ждать приходится, только если буфер
+ * заполнен целиком.
+ * <p>
+ * Номера в буфере задают порядок просмотров, поэтому просмотр, завершившийся раньше начала другого,
+ * и в истории окажется раньше. getHistory возвращает копию, снятую под блокировкой, и видит
+ * все просмотры, завершившиеся до её вызова.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+	private static final int BUFFER_SIZE = 1 << 12;
+	private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+	private final AtomicReferenceArray<Task> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+	// Следующий свободный номер; ячейка номера n - buffer[n % BUFFER_SIZE]
+	private final AtomicLong tail = new AtomicLong();
+	// Следующий номер для разбора; меняется только под drainLock
+	private volatile long head;
+	private final ReentrantLock drainLock = new ReentrantLock();
+	private final ArrayHistoryManager history;
+
+	/**
+	 * История без ограничения размера.
+	 */
+	public ConcurrentHistoryManager() {
+		this.history = new ArrayHistoryManager();
+	}
+
+	/**
+	 * @param capacity сколько последних просмотров хранить
+	 */
+	public ConcurrentHistoryManager(int capacity) {
+		this.history = new ArrayHistoryManager(capacity);
+	}
+
+	public int getCapacity() {
+		return history.getCapacity();
+	}
+
+	@Override
+	public void addTask(Task task) {
+		if (task == null) {
+			return;
+		}
+
+		// Копия незамороженной задачи делается до публикации, вне блокировки
+		Task stored = InMemoryHistoryManager.frozenVersion(task);
+		long position = tail.getAndIncrement();
+		while (position - head >= BUFFER_SIZE) {
+			// Буфер полон: разбираем сами или ждём того, кто уже разбирает
+			drainLock.lock();
+			try {
+				drainBuffer();
+			} finally {
+				drainLock.unlock();
+			}
+			if (position - head >= BUFFER_SIZE) {
+				// Разбор упёрся в ячейку, которую занял, но ещё не заполнил вытесненный поток: уступаем ему
+				Thread.yield();
+			}
+		}
+		buffer.setRelease(index(position), stored);
+
+		if (position - head >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+			try {
+				drainBuffer();
+			} finally {
+				drainLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public List<Task> getHistory() {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			return history.getHistory();
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	@Override
+	public List<Task> getHistory(int limit) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			return history.getHistory(limit);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	/**
+	 * Буфер разбирается до замены, иначе более ранний просмотр вернул бы в историю старую версию.
+	 */
+	@Override
+	public void replace(Task task) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			history.replace(task);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	@Override
+	public void remove(int id) {
+		drainLock.lock();
+		try {
+			drainBuffer();
+			history.remove(id);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	/**
+	 * Переносит опубликованные просмотры в историю по порядку номеров. Останавливается на первой
+	 * ещё не заполненной ячейке: её просмотр не завершился, и он попадёт в следующий разбор.
+	 */
+	private void drainBuffer() {
+		long position = head;
+		while (true) {
+			int index = index(position);
+			Task task = buffer.getAcquire(index);
+			if (task == null) {
+				break;
+			}
+			buffer.setPlain(index, null);
+			history.addTask(task);
+			position++;
+		}
+		// Запись head публикует очистку ячеек для следующего круга буфера
+		head = position;
+	}
+
+	private static int index(long position) {
+		return (int) (position & (BUFFER_SIZE - 1));
+	}
+}
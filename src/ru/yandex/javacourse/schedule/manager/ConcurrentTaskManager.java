@@ -0,0 +1,252 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TimeSlot;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * Чтения выполняются параллельно под read-lock, любые изменения (включая проверку пересечений)
+ * выполняются под write-lock и потому линеаризуемы.
+ * История просмотров меняется и при чтении, поэтому используется ConcurrentHistoryManager:
+ * просмотры записываются в неё без общей блокировки.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public ConcurrentTaskManager() {
+		super(new ConcurrentHistoryManager());
+	}
+
+	/**
+	 * @param historyCapacity сколько последних просмотров хранит история
+	 */
+	public ConcurrentTaskManager(int historyCapacity) {
+		super(new ConcurrentHistoryManager(historyCapacity));
+	}
+
+	/**
+	 * @param historyManager потокобезопасная история, например AsyncHistoryManager
+	 */
+	public ConcurrentTaskManager(HistoryManager historyManager) {
+		super(historyManager);
+	}
+
+	private <T> T read(Supplier<T> action) {
+		return locked(lock.readLock(), action);
+	}
+
+	private <T> T write(Supplier<T> action) {
+		return locked(lock.writeLock(), action);
+	}
+
+	private void write(Runnable action) {
+		locked(lock.writeLock(), () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	private static <T> T locked(Lock lock, Supplier<T> action) {
+		lock.lock();
+		try {
+			return action.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Актуальный снимок отдаётся без блокировки; пересборка устаревшего идёт под read-lock,
+	 * поэтому не пересекается с изменениями, а инвалидация выполняется под write-lock.
+	 */
+	private <E> List<E> readSnapshot(Snapshot<E> snapshot, Supplier<List<E>> reader) {
+		List<E> current = snapshot.peek();
+		return current != null ? current : read(reader);
+	}
+
+	@Override
+	public List<Task> getTasks() {
+		return readSnapshot(tasksSnapshot, super::getTasks);
+	}
+
+	@Override
+	public List<Subtask> getSubtasks() {
+		return readSnapshot(subtasksSnapshot, super::getSubtasks);
+	}
+
+	@Override
+	public List<Epic> getEpics() {
+		return readSnapshot(epicsSnapshot, super::getEpics);
+	}
+
+	@Override
+	public List<Task> getPrioritizedTasks() {
+		return readSnapshot(prioritizedSnapshot, super::getPrioritizedTasks);
+	}
+
+	@Override
+	public List<Task> getTasks(Integer afterId, int limit) {
+		return read(() -> super.getTasks(afterId, limit));
+	}
+
+	@Override
+	public List<Subtask> getSubtasks(Integer afterId, int limit) {
+		return read(() -> super.getSubtasks(afterId, limit));
+	}
+
+	@Override
+	public List<Epic> getEpics(Integer afterId, int limit) {
+		return read(() -> super.getEpics(afterId, limit));
+	}
+
+	@Override
+	public List<Task> getPrioritizedTasks(LocalDateTime afterStartTime, Integer afterId, int limit) {
+		return read(() -> super.getPrioritizedTasks(afterStartTime, afterId, limit));
+	}
+
+	/**
+	 * Живое хранилище нельзя обходить вне блокировки, поэтому потоки идут по неизменяемым снимкам:
+	 * снимок общий для всех читателей и пересобирается только после изменений.
+	 */
+	@Override
+	public Stream<Task> streamTasks() {
+		return getTasks().stream();
+	}
+
+	@Override
+	public Stream<Subtask> streamSubtasks() {
+		return getSubtasks().stream();
+	}
+
+	@Override
+	public Stream<Epic> streamEpics() {
+		return getEpics().stream();
+	}
+
+	@Override
+	public Stream<Task> streamPrioritizedTasks() {
+		return getPrioritizedTasks().stream();
+	}
+
+	@Override
+	public List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+		return read(() -> super.getFreeSlots(from, to, duration, limit));
+	}
+
+	@Override
+	public ArrayList<Subtask> getEpicSubtasks(int epicId) {
+		return read(() -> super.getEpicSubtasks(epicId));
+	}
+
+	@Override
+	public Task getTask(int id) {
+		return read(() -> super.getTask(id));
+	}
+
+	@Override
+	public Subtask getSubtask(int id) {
+		return read(() -> super.getSubtask(id));
+	}
+
+	@Override
+	public Epic getEpic(int id) {
+		return read(() -> super.getEpic(id));
+	}
+
+	@Override
+	public List<Task> getHistory() {
+		return read(super::getHistory);
+	}
+
+	@Override
+	public List<Task> getHistory(int limit) {
+		return read(() -> super.getHistory(limit));
+	}
+
+	@Override
+	public Integer createTask(Task task) {
+		return write(() -> super.createTask(task));
+	}
+
+	@Override
+	public Integer createEpic(Epic epic) {
+		return write(() -> super.createEpic(epic));
+	}
+
+	@Override
+	public Integer createSubtask(Subtask subtask) {
+		return write(() -> super.createSubtask(subtask));
+	}
+
+	@Override
+	public List<Integer> createTasks(List<Task> tasks) {
+		return write(() -> super.createTasks(tasks));
+	}
+
+	@Override
+	public List<Integer> createSubtasks(List<Subtask> subtasks) {
+		return write(() -> super.createSubtasks(subtasks));
+	}
+
+	@Override
+	public void updateTasks(List<Task> tasks) {
+		write(() -> super.updateTasks(tasks));
+	}
+
+	@Override
+	public void updateTask(Task task) {
+		write(() -> super.updateTask(task));
+	}
+
+	@Override
+	public void updateEpic(Epic epic) {
+		write(() -> super.updateEpic(epic));
+	}
+
+	@Override
+	public void updateSubtask(Subtask subtask) {
+		write(() -> super.updateSubtask(subtask));
+	}
+
+	@Override
+	public void deleteTask(int id) {
+		write(() -> super.deleteTask(id));
+	}
+
+	@Override
+	public void deleteEpic(int id) {
+		write(() -> super.deleteEpic(id));
+	}
+
+	@Override
+	public void deleteSubtask(int id) {
+		write(() -> super.deleteSubtask(id));
+	}
+
+	@Override
+	public void deleteTasks() {
+		write(super::deleteTasks);
+	}
+
+	@Override
+	public void deleteSubtasks() {
+		write(super::deleteSubtasks);
+	}
+
+	@Override
+	public void deleteEpics() {
+		write(super::deleteEpics);
+	}
+}
@@ -0,0 +1,21 @@
+package ru.yandex.javacourse.schedule.manager;
+
+/**
+ * Как FileBackedTaskManager сохраняет изменения на диск.
+ */
+public enum DurabilityMode {
+    /**
+     * Файл переписывается в потоке вызова после каждого изменения.
+     */
+    SYNC,
+    /**
+     * Вызов ждёт, пока изменение окажется на диске; изменения, пришедшие в пределах окна,
+     * записываются одним снимком с fsync.
+     */
+    GROUP_COMMIT,
+    /**
+     * Снимок пишется фоновым потоком без ожидания; вызов блокируется, только если
+     * незаписанные изменения старше допустимого отставания.
+     */
+    ASYNC
+}
@@ -0,0 +1,193 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import static ru.yandex.javacourse.schedule.tasks.TaskStatus.DONE;
+import static ru.yandex.javacourse.schedule.tasks.TaskStatus.IN_PROGRESS;
+import static ru.yandex.javacourse.schedule.tasks.TaskStatus.NEW;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashMap;
+
+/**
+ * Накопленные параметры подзадач одного эпика: счётчики статусов, суммарная длительность
+ * и мультимножества времён начала и окончания. Добавление и удаление подзадачи стоят O(log n).
+ * Вклад каждой подзадачи запоминается в момент добавления, поэтому изменения объекта
+ * подзадачи в обход менеджера не ломают счётчики.
+ * <p>
+ * Вместе с параметрами эпику выставляется контрольная сумма: сумма хешей вкладов подзадач,
+ * смешанная с самими параметрами. Она сохраняется в снимок, и при загрузке параметры эпика
+ * принимаются без построения агрегата, если сумма сходится с загруженными подзадачами.
+ */
+class EpicAggregate {
+	private final IntLinkedHashMap<Contribution> contributions = new IntLinkedHashMap<>();
+	private final Map<TaskStatus, Integer> statusCounts = new EnumMap<>(TaskStatus.class);
+	private int nullStatusCount;
+	private Duration totalDuration = Duration.ZERO;
+	private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+	private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+	private long subtasksDigest;
+
+	private record Contribution(TaskStatus status, Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
+	}
+
+	void add(Subtask subtask) {
+		remove(subtask.getId());
+
+		Contribution contribution = new Contribution(subtask.getStatus(), contributedDuration(subtask),
+				subtask.getStartTime(), subtask.getEndTime());
+		contributions.put(subtask.getId(), contribution);
+		subtasksDigest += hash(subtask.getId(), contribution.status(), contribution.duration(),
+				contribution.startTime(), contribution.endTime());
+
+		if (contribution.status() == null) {
+			nullStatusCount++;
+		} else {
+			statusCounts.merge(contribution.status(), 1, Integer::sum);
+		}
+		totalDuration = totalDuration.plus(contribution.duration());
+		increment(startTimes, contribution.startTime());
+		increment(endTimes, contribution.endTime());
+	}
+
+	void remove(int subtaskId) {
+		Contribution contribution = contributions.remove(subtaskId);
+		if (contribution == null) {
+			return;
+		}
+		subtasksDigest -= hash(subtaskId, contribution.status(), contribution.duration(),
+				contribution.startTime(), contribution.endTime());
+
+		if (contribution.status() == null) {
+			nullStatusCount--;
+		} else {
+			statusCounts.merge(contribution.status(), -1, Integer::sum);
+		}
+		totalDuration = totalDuration.minus(contribution.duration());
+		decrement(startTimes, contribution.startTime());
+		decrement(endTimes, contribution.endTime());
+	}
+
+	void clear() {
+		contributions.clear();
+		statusCounts.clear();
+		nullStatusCount = 0;
+		totalDuration = Duration.ZERO;
+		startTimes.clear();
+		endTimes.clear();
+		subtasksDigest = 0;
+	}
+
+	/**
+	 * Переносит накопленные значения в эпик. Правила совпадают с полным пересчётом по подзадачам:
+	 * эпик NEW или DONE, только если все подзадачи в этом статусе, иначе IN_PROGRESS.
+	 */
+	void applyTo(Epic epic) {
+		epic.setStatus(calculateStatus());
+		epic.setDuration(totalDuration);
+		epic.setStartTime(startTimes.isEmpty() ? null : startTimes.firstKey());
+		epic.setEndTime(endTimes.isEmpty() ? null : endTimes.lastKey());
+		epic.setParamsChecksum(seal(subtasksDigest, epic));
+	}
+
+	/**
+	 * Можно ли доверять загруженным параметрам эпика: пересчитывает контрольную сумму
+	 * по подзадачам за один проход без деревьев и сверяет с сохранённой. 0 - суммы нет.
+	 */
+	static boolean hasValidParams(Epic epic, IntLinkedHashMap<Subtask> subtasks) {
+		long checksum = epic.getParamsChecksum();
+		if (checksum == 0) {
+			return false;
+		}
+		long[] digest = new long[1];
+		epic.forEachSubtaskId(id -> {
+			Subtask subtask = subtasks.get(id);
+			if (subtask != null) {
+				digest[0] += hash(id, subtask.getStatus(), contributedDuration(subtask),
+						subtask.getStartTime(), subtask.getEndTime());
+			}
+		});
+		return checksum == seal(digest[0], epic);
+	}
+
+	private static Duration contributedDuration(Subtask subtask) {
+		Duration duration = subtask.getDuration();
+		if (duration == null || duration.isNegative() || duration.isZero()) {
+			return Duration.ZERO;
+		}
+		return duration;
+	}
+
+	/**
+	 * Хеш вклада подзадачи. Вклады складываются, поэтому сумма не зависит от порядка
+	 * и при удалении подзадачи просто вычитается.
+	 */
+	private static long hash(int id, TaskStatus status, Duration duration, LocalDateTime startTime,
+			LocalDateTime endTime) {
+		long h = mix(id);
+		h = mix(h + (status == null ? 0 : status.ordinal() + 1));
+		h = mix(h + durationHash(duration));
+		h = mix(h + timeHash(startTime));
+		return mix(h + timeHash(endTime));
+	}
+
+	private static long seal(long subtasksDigest, Epic epic) {
+		long h = mix(subtasksDigest);
+		h = mix(h + (epic.getStatus() == null ? 0 : epic.getStatus().ordinal() + 1));
+		h = mix(h + (epic.getDuration() == null ? -1 : durationHash(epic.getDuration())));
+		h = mix(h + timeHash(epic.getStartTime()));
+		return mix(h + timeHash(epic.getEndTime()));
+	}
+
+	private static long durationHash(Duration duration) {
+		return duration.getSeconds() * 1_000_000_000L + duration.getNano();
+	}
+
+	private static long timeHash(LocalDateTime time) {
+		if (time == null) {
+			return -1;
+		}
+		return mix(time.toLocalDate().toEpochDay()) + time.toLocalTime().toNanoOfDay();
+	}
+
+	/**
+	 * Финальное перемешивание SplitMix64.
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+	private TaskStatus calculateStatus() {
+		int total = contributions.size();
+		if (total == 0 || statusCounts.getOrDefault(NEW, 0) == total) {
+			return NEW;
+		}
+		if (statusCounts.getOrDefault(DONE, 0) == total) {
+			return DONE;
+		}
+		if (nullStatusCount == total) {
+			return null;
+		}
+		return IN_PROGRESS;
+	}
+
+	private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+		if (time != null) {
+			times.merge(time, 1, Integer::sum);
+		}
+	}
+
+	private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+		if (time != null) {
+			times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+		}
+	}
+}
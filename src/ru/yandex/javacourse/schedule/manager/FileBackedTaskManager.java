@@ -1,158 +1,376 @@
 package ru.yandex.javacourse.schedule.manager;
 
 import ru.yandex.javacourse.schedule.tasks.*;
+import ru.yandex.javacourse.schedule.util.CsvChannelWriter;
+import ru.yandex.javacourse.schedule.util.TaskBinaryFormat;
 import ru.yandex.javacourse.schedule.util.TaskCSVConverter;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
-    private final Path saveFile;
+public class FileBackedTaskManager extends PersistentTaskManager implements AutoCloseable {
+    protected static final String HEADER = "id,type,name,status,description,duration,startTime,epic,endTime,checksum";
+    // CSV меньше этого размера читается последовательно: параллельный разбор не окупается
+    static final int PARALLEL_LOAD_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    protected final Path saveFile;
+    protected final SnapshotFormat format;
+    private final SnapshotWriter writer;
 
     public FileBackedTaskManager(Path savePath) {
+        this(savePath, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(Path savePath, SnapshotFormat format) {
+        this(savePath, format, DurabilityMode.SYNC, Duration.ZERO);
+    }
+
+    public FileBackedTaskManager(Path savePath, DurabilityMode mode, Duration window) {
+        this(savePath, SnapshotFormat.CSV, mode, window);
+    }
+
+    /**
+     * @param window для GROUP_COMMIT - окно, в пределах которого изменения пишутся вместе,
+     *               для ASYNC - допустимое отставание файла от памяти
+     */
+    public FileBackedTaskManager(Path savePath, SnapshotFormat format, DurabilityMode mode, Duration window) {
         this.saveFile = savePath;
+        this.format = format;
+        this.writer = mode == DurabilityMode.SYNC ? null
+                : new SnapshotWriter(savePath, historyFile(), format, mode, window);
     }
 
+    /**
+     * История сохраняется вместе со снимком, а ещё при close(), чтобы не потерять просмотры
+     * после последнего изменения.
+     */
     private void save() {
-        try (BufferedWriter bw = Files.newBufferedWriter(saveFile)) {
-            bw.write("id,type,name,status,description,duration,startTime,epic");
-            bw.newLine();
-            for (Task task : getTasks()) {
-                bw.write(TaskCSVConverter.fromTaskToString(task));
-                bw.newLine();
-            }
-            for (Epic epic : getEpics()) {
-                bw.write(TaskCSVConverter.fromTaskToString(epic));
-                bw.newLine();
+        if (writer == null) {
+            try {
+                writeSnapshotAtomically(saveFile, format, getTasks(), getEpics(), getSubtasks(), false);
+                writeHistory(historyFile(), getHistoryIds());
+            } catch (IOException e) {
+                throw new ManagerSaveException("Failed to save data to file: " + saveFile, e);
             }
-            for (Subtask subtask : getSubtasks()) {
-                bw.write(TaskCSVConverter.fromTaskToString(subtask));
-                bw.newLine();
+        } else {
+            writer.save(new SnapshotWriter.State(getTasks(), getEpics(), getSubtasks(), getHistoryIds()));
+        }
+    }
+
+    /**
+     * Файл истории: id просмотренных задач через запятую в порядке getHistory.
+     */
+    protected Path historyFile() {
+        return saveFile.resolveSibling(saveFile.getFileName() + ".history");
+    }
+
+    protected static void writeHistory(Path file, int[] ids) throws IOException {
+        StringBuilder sb = new StringBuilder(ids.length * 8 + 1);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                sb.append(',');
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Failed to save data to file: " + saveFile, e);
+            sb.append(ids[i]);
         }
+        sb.append('\n');
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tempFile, sb);
+        replaceFile(tempFile, file);
     }
 
-    public static FileBackedTaskManager loadFromFile(Path file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+    protected static int[] readHistory(Path file) {
         if (!Files.exists(file)) {
-            return manager;
+            return new int[0];
         }
-        try (BufferedReader br = Files.newBufferedReader(file)) {
-            String line;
-            int maxId = 0;
-            List<Subtask> allSubtasks = new ArrayList<>();
-            br.readLine(); // Пропускаем заголовок
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                Task task = TaskCSVConverter.fromStringToTask(line);
-                maxId = Math.max(maxId, task.getId());
-                switch (task.getType()) {
-                    case TASK -> manager.tasks.put(task.getId(), task);
-                    case EPIC -> manager.epics.put(task.getId(), (Epic) task);
-                    case SUBTASK -> allSubtasks.add((Subtask) task);
-                }
+        try {
+            String text = Files.readString(file).trim();
+            if (text.isEmpty()) {
+                return new int[0];
             }
-            // Обрабатываем подзадачи
-            for (Subtask subtask : allSubtasks) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic == null) {
-                    throw new IllegalStateException("Epic not found for subtask ID " + subtask.getId());
+            int[] ids = new int[(int) text.chars().filter(c -> c == ',').count() + 1];
+            int from = 0;
+            for (int i = 0; i < ids.length; i++) {
+                int to = text.indexOf(',', from);
+                if (to < 0) {
+                    to = text.length();
                 }
-                manager.subtasks.put(subtask.getId(), subtask);
-                epic.addSubtaskId(subtask.getId());
+                ids[i] = Integer.parseInt(text, from, to, 10);
+                from = to + 1;
             }
-            // Обновляем статусы и время эпиков
-            for (Epic epic : manager.getEpics()) {
-                manager.updateEpicParams(epic);
+            return ids;
+        } catch (IOException | NumberFormatException e) {
+            throw new ManagerSaveException("Failed to load history from file: " + file, e);
+        }
+    }
+
+    /**
+     * Число изменений, которые ещё не записаны на диск. В режиме SYNC всегда 0.
+     */
+    public long getPendingMutations() {
+        return writer == null ? 0 : writer.getPendingMutations();
+    }
+
+    /**
+     * Возраст самого старого незаписанного изменения. В режиме SYNC всегда ноль.
+     */
+    public Duration getPersistenceLag() {
+        return writer == null ? Duration.ZERO : writer.getLag();
+    }
+
+    /**
+     * Дописывает изменения, ожидающие фоновой записи, и останавливает поток записи.
+     */
+    @Override
+    public void close() {
+        if (writer != null) {
+            writer.close();
+        }
+        int[] history = getHistoryIds();
+        if (history.length == 0 && !Files.exists(historyFile())) {
+            return;
+        }
+        try {
+            writeHistory(historyFile(), history);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to save history to file: " + historyFile(), e);
+        }
+    }
+
+    /**
+     * Пишет снимок во временный файл и атомарно подменяет им прежний,
+     * чтобы сбой посреди записи не оставил файл обрезанным.
+     */
+    protected static void writeSnapshotAtomically(Path file, SnapshotFormat format, List<Task> tasks,
+                                                  List<Epic> epics, List<Subtask> subtasks, boolean fsync)
+            throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        writeSnapshot(tempFile, format, tasks, epics, subtasks, fsync);
+        replaceFile(tempFile, file);
+    }
+
+    protected static void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Записывает полный снимок задач в выбранном формате. Списки из менеджера неизменяемы и содержат
+     * замороженные задачи, поэтому запись можно вести и вне потока, который меняет менеджер.
+     * С fsync метод возвращается только после того, как данные дошли до диска.
+     */
+    protected static void writeSnapshot(Path file, SnapshotFormat format, List<Task> tasks, List<Epic> epics,
+                                        List<Subtask> subtasks, boolean fsync) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (format == SnapshotFormat.BINARY) {
+                TaskBinaryFormat.write(Channels.newOutputStream(channel), tasks, epics, subtasks);
+            } else {
+                CsvChannelWriter.write(channel, HEADER, tasks, epics, subtasks);
+            }
+            if (fsync) {
+                channel.force(true);
             }
-            // Обновляем generatorId
-            manager.generatorId = maxId;
         } catch (IOException e) {
-            throw new ManagerSaveException("Failed to load data from file: " + file, e);
+            throw new ManagerSaveException("Failed to save data to file: " + file, e);
         }
-        return manager;
     }
 
+    /**
+     * Загружает снимок; формат определяется по содержимому файла и сохраняется для дальнейших записей.
+     */
+    public static FileBackedTaskManager loadFromFile(Path file) {
+        return loadFromFile(file, Runtime.getRuntime().availableProcessors());
+    }
 
-    @Override
-    public Integer createTask(Task task) {
-        Integer taskId = super.createTask(task);
-        save();
-        return taskId;
+    /**
+     * @param parallelism сколько потоков разбирают CSV и пересчитывают эпики; 1 - загрузка в текущем потоке
+     */
+    public static FileBackedTaskManager loadFromFile(Path file, int parallelism) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, detectFormat(file));
+        ForkJoinPool pool = createLoadPool(parallelism);
+        try {
+            manager.readSnapshot(file, pool);
+            manager.restoreLoadedState(pool);
+            manager.restoreHistory(readHistory(manager.historyFile()));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return manager;
     }
 
-    @Override
-    public Integer createSubtask(Subtask subtask) {
-        Integer subtaskId = super.createSubtask(subtask);
-        save();
-        return subtaskId;
+    /**
+     * Пул для загрузки или null, если грузить нужно в текущем потоке.
+     */
+    protected static ForkJoinPool createLoadPool(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return parallelism == 1 ? null : new ForkJoinPool(parallelism);
     }
 
-    @Override
-    public Integer createEpic(Epic epic) {
-        Integer epicId = super.createEpic(epic);
-        save();
-        return epicId;
+    protected static SnapshotFormat detectFormat(Path file) {
+        return TaskBinaryFormat.isBinarySnapshot(file) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
     }
 
-    @Override
-    public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+    /**
+     * Складывает задачи из снимка прямо в хранилища, без проверок и пересчёта эпиков.
+     */
+    protected void readSnapshot(Path file) {
+        readSnapshot(file, null);
     }
 
-    @Override
-    public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+    /**
+     * @param pool пул для разбора большого CSV по частям; null - разбор в текущем потоке
+     */
+    protected void readSnapshot(Path file, ForkJoinPool pool) {
+        readSnapshot(file, format, pool, this::putLoaded);
     }
 
-    @Override
-    public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+    /**
+     * Читает снимок и передаёт задачи consumer в порядке следования в файле.
+     */
+    protected static void readSnapshot(Path file, SnapshotFormat format, ForkJoinPool pool, Consumer<Task> consumer) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        if (format == SnapshotFormat.BINARY) {
+            try {
+                TaskBinaryFormat.read(file, consumer);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Failed to load data from file: " + file, e);
+            }
+            return;
+        }
+        try {
+            long size = Files.size(file);
+            if (pool != null && size >= PARALLEL_LOAD_THRESHOLD && size <= Integer.MAX_VALUE) {
+                readCsvInParallel(file, (int) size, pool, consumer);
+                return;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to load data from file: " + file, e);
+        }
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line;
+            br.readLine(); // Пропускаем заголовок
+            while ((line = TaskCSVConverter.readRecord(br)) != null) {
+                if (line.trim().isEmpty()) continue;
+                consumer.accept(TaskCSVConverter.fromStringToTask(line));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to load data from file: " + file, e);
+        }
     }
 
-    @Override
-    public void deleteTask(int id) {
-        super.deleteTask(id);
-        save();
+    /**
+     * Делит отображённый в память файл на части по границам записей, разбирает части в пуле
+     * и складывает задачи в хранилища в порядке следования в файле.
+     */
+    private static void readCsvInParallel(Path file, int size, ForkJoinPool pool, Consumer<Task> consumer)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4));
+        List<Integer> boundaries = recordBoundaries(buffer, size, chunkSize);
+        List<ForkJoinTask<List<Task>>> chunks = new ArrayList<>();
+        // Первая граница - конец заголовка
+        for (int i = 1; i < boundaries.size(); i++) {
+            int from = boundaries.get(i - 1);
+            int to = boundaries.get(i);
+            chunks.add(pool.submit(() -> parseCsvChunk(buffer, from, to)));
+        }
+        for (ForkJoinTask<List<Task>> chunk : chunks) {
+            chunk.join().forEach(consumer);
+        }
     }
 
-    @Override
-    public void deleteEpic(int id) {
-        super.deleteEpic(id);
-        save();
+    /**
+     * Начала записей примерно через chunkSize байт. Перевод строки внутри кавычек записи не завершает;
+     * кавычка и перевод строки в UTF-8 однобайтовые, поэтому файл можно просматривать побайтно.
+     */
+    private static List<Integer> recordBoundaries(MappedByteBuffer buffer, int size, int chunkSize) {
+        List<Integer> boundaries = new ArrayList<>();
+        boolean quoted = false;
+        long nextBoundary = 0;
+        for (int i = 0; i < size; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted && i >= nextBoundary) {
+                boundaries.add(i + 1);
+                nextBoundary = (long) i + 1 + chunkSize;
+            }
+        }
+        if (boundaries.isEmpty() || boundaries.get(boundaries.size() - 1) < size) {
+            boundaries.add(size);
+        }
+        return boundaries;
     }
 
-    @Override
-    public void deleteSubtask(int id) {
-        super.deleteSubtask(id);
-        save();
+    private static List<Task> parseCsvChunk(MappedByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        List<Task> parsed = new ArrayList<>();
+        int recordStart = 0;
+        while (recordStart < text.length()) {
+            int recordEnd = TaskCSVConverter.recordEnd(text, recordStart, text.length());
+            int contentEnd = recordEnd > recordStart && text.charAt(recordEnd - 1) == '\r' ? recordEnd - 1 : recordEnd;
+            if (!isBlank(text, recordStart, contentEnd)) {
+                parsed.add(TaskCSVConverter.fromStringToTask(text, recordStart, contentEnd));
+            }
+            recordStart = recordEnd + 1;
+        }
+        return parsed;
+    }
+
+    private static boolean isBlank(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * По умолчанию при любом изменении файл перезаписывается целиком.
+     */
     @Override
-    public void deleteTasks() {
-        super.deleteTasks();
+    protected void onSaved(TaskType type, List<Integer> ids) {
         save();
     }
 
     @Override
-    public void deleteEpics() {
-        super.deleteEpics();
+    protected void onDeleted(TaskType type, int id) {
         save();
     }
 
     @Override
-    public void deleteSubtasks() {
-        super.deleteSubtasks();
+    protected void onDeletedAll(TaskType type) {
         save();
     }
 }
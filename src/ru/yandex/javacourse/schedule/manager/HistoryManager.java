@@ -7,7 +7,18 @@ import ru.yandex.javacourse.schedule.tasks.Task;
 public interface HistoryManager {
 	List<Task> getHistory();
 
+	/**
+	 * Не больше limit последних просмотров, в том же порядке, что getHistory: от старых к новым.
+	 */
+	List<Task> getHistory(int limit);
+
 	void addTask(Task task);
 
+	/**
+	 * Если задача с таким id есть в истории, запись указывает на новую версию task,
+	 * позиция в истории не меняется. Иначе ничего не делает.
+	 */
+	void replace(Task task);
+
 	void remove(int id);
 }
@@ -5,12 +5,38 @@ import java.util.*;
 import ru.yandex.javacourse.schedule.tasks.Task;
 import ru.yandex.javacourse.schedule.util.entities.Node;
 
+/**
+ * История на двусвязном списке с индексом по id. При заданной ёмкости самая старая запись
+ * вытесняется за O(1), когда добавление превышает ёмкость.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
 	private final Map<Integer, Node<Task>> taskMap = new HashMap<>();
+	private final int capacity;
 
 	private Node<Task> head;
 	private Node<Task> tail;
 
+	/**
+	 * История без ограничения размера.
+	 */
+	public InMemoryHistoryManager() {
+		this.capacity = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param capacity сколько последних просмотров хранить
+	 */
+	public InMemoryHistoryManager(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("History capacity must be positive");
+		}
+		this.capacity = capacity;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
 	private void linkLast(Task task) {
 		if (task == null) {
 			return;
@@ -18,9 +44,9 @@ public class InMemoryHistoryManager implements HistoryManager {
 
 		remove(task.getId()); // Удаляем существующую задачу с таким же id, если такая существует
 
-		Task taskCopy = new Task(task); // Создаем копию задачи чтобы избежать изменений извне
+		Task stored = frozenVersion(task);
 		final Node<Task> oldTail = tail;
-		final Node<Task> newNode = new Node<>(taskCopy, oldTail, null);
+		final Node<Task> newNode = new Node<>(stored, oldTail, null);
 		tail = newNode;
 
 		if (oldTail == null) {
@@ -30,6 +56,22 @@ public class InMemoryHistoryManager implements HistoryManager {
 		}
 
 		taskMap.put(task.getId(), newNode); // Добавляем в map для быстрого доступа
+		if (taskMap.size() > capacity) {
+			removeNode(head);
+		}
+	}
+
+	/**
+	 * Замороженные задачи менеджера неизменяемы и сами являются версией, остальные копируем
+	 * с сохранением типа, чтобы избежать изменений извне.
+	 */
+	static Task frozenVersion(Task task) {
+		if (task.isFrozen()) {
+			return task;
+		}
+		Task copy = task.copy();
+		copy.freeze();
+		return copy;
 	}
 
 	private void removeNode(Node<Task> node) {
@@ -79,11 +121,42 @@ public class InMemoryHistoryManager implements HistoryManager {
 		return getTasks();
 	}
 
+	/**
+	 * Отступает от хвоста на limit узлов и копирует только их.
+	 */
+	@Override
+	public List<Task> getHistory(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("History limit must not be negative");
+		}
+		int count = Math.min(limit, taskMap.size());
+		if (count == 0) {
+			return new ArrayList<>();
+		}
+		Node<Task> first = tail;
+		for (int i = 1; i < count; i++) {
+			first = first.getPrev();
+		}
+		List<Task> tasks = new ArrayList<>(count);
+		for (Node<Task> current = first; current != null; current = current.getNext()) {
+			tasks.add(current.getData());
+		}
+		return tasks;
+	}
+
 	@Override
 	public void addTask(Task task) {
 		linkLast(task);
 	}
 
+	@Override
+	public void replace(Task task) {
+		Node<Task> node = taskMap.get(task.getId());
+		if (node != null) {
+			node.setData(frozenVersion(task));
+		}
+	}
+
 	@Override
 	public void remove(int id) {
 		Node<Task> node = taskMap.get(id);
@@ -1,27 +1,34 @@
 package ru.yandex.javacourse.schedule.manager;
 
-import static ru.yandex.javacourse.schedule.tasks.TaskStatus.IN_PROGRESS;
-import static ru.yandex.javacourse.schedule.tasks.TaskStatus.NEW;
-
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import ru.yandex.javacourse.schedule.tasks.Epic;
 import ru.yandex.javacourse.schedule.tasks.Subtask;
 import ru.yandex.javacourse.schedule.tasks.Task;
-import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+import ru.yandex.javacourse.schedule.tasks.TimeSlot;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashMap;
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashSet;
+import ru.yandex.javacourse.schedule.util.entities.SortedViews;
 
 public class InMemoryTaskManager implements TaskManager {
-	protected final Map<Integer, Task> tasks = new HashMap<>();
-	protected final Map<Integer, Epic> epics = new HashMap<>();
-	protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+	protected final IntLinkedHashMap<Task> tasks = new IntLinkedHashMap<>();
+	protected final IntLinkedHashMap<Epic> epics = new IntLinkedHashMap<>();
+	protected final IntLinkedHashMap<Subtask> subtasks = new IntLinkedHashMap<>();
 
 	protected int generatorId = 0;
 
-	private final HistoryManager historyManager = Managers.getDefaultHistory();
+	private final IntLinkedHashMap<EpicAggregate> epicAggregates = new IntLinkedHashMap<>();
+
+	// Запись истории указывает на текущую замороженную версию: при замене версии в хранилище она перенаправляется
+	private final HistoryManager historyManager;
 
 	private final TreeSet<Task> prioritizedTasks = new TreeSet<>((task1, task2) -> {
 		if (!task1.getStartTime().equals(task2.getStartTime())) {
@@ -30,14 +37,70 @@ public class InMemoryTaskManager implements TaskManager {
 		return Integer.compare(task1.getId(), task2.getId());
 	});
 
+	/**
+	 * Индекс интервалов ненулевой длины по времени начала.
+	 * Такие интервалы попарно не пересекаются, поэтому ключи уникальны,
+	 * а время окончания растёт вместе со временем начала.
+	 */
+	private final TreeMap<LocalDateTime, Task> intervalIndex = new TreeMap<>();
+
+	protected final Snapshot<Task> tasksSnapshot = new Snapshot<>(() -> List.copyOf(tasks.values()));
+	protected final Snapshot<Epic> epicsSnapshot = new Snapshot<>(() -> List.copyOf(epics.values()));
+	protected final Snapshot<Subtask> subtasksSnapshot = new Snapshot<>(() -> List.copyOf(subtasks.values()));
+	protected final Snapshot<Task> prioritizedSnapshot = new Snapshot<>(() -> List.copyOf(prioritizedTasks));
+
+	public InMemoryTaskManager() {
+		this(Managers.getDefaultHistory());
+	}
+
+	/**
+	 * @param historyCapacity сколько последних просмотров хранит история
+	 */
+	public InMemoryTaskManager(int historyCapacity) {
+		this(Managers.getDefaultHistory(historyCapacity));
+	}
+
+	protected InMemoryTaskManager(HistoryManager historyManager) {
+		this.historyManager = historyManager;
+	}
+
+	/**
+	 * Проверка пересечения за O(log n): достаточно проверить ближайших соседей.
+	 * Пересечение возможно либо с задачей, начинающейся строго внутри нового интервала,
+	 * либо с ближайшим интервалом ненулевой длины, начинающимся не позже нового.
+	 */
 	private boolean isTasksOverlapping(Task newTask) {
-		if (newTask.getStartTime() == null) {
+		final LocalDateTime start = newTask.getStartTime();
+		if (start == null) {
 			return false;
 		}
 
-		return prioritizedTasks.stream()
-				.filter(oldTask -> !Objects.equals(oldTask.getId(), newTask.getId()))
-				.anyMatch(existingTask -> isTasksOverlapping(newTask, existingTask));
+		Task next = prioritizedTasks.higher(createTimeProbe(start, Integer.MAX_VALUE));
+		if (next != null && isSameTask(next, newTask)) {
+			next = prioritizedTasks.higher(next);
+		}
+		if (next != null && isTasksOverlapping(newTask, next)) {
+			return true;
+		}
+
+		Map.Entry<LocalDateTime, Task> prev = intervalIndex.floorEntry(start);
+		if (prev != null && isSameTask(prev.getValue(), newTask)) {
+			prev = intervalIndex.lowerEntry(prev.getKey());
+		}
+		return prev != null && isTasksOverlapping(newTask, prev.getValue());
+	}
+
+	private static Task createTimeProbe(LocalDateTime startTime, int id) {
+		return new Task(id, null, null, null, Duration.ZERO, startTime);
+	}
+
+	private static boolean isSameTask(Task task1, Task task2) {
+		return Objects.equals(task1.getId(), task2.getId());
+	}
+
+	private static boolean hasInterval(Task task) {
+		return task.getStartTime() != null && task.getDuration() != null
+				&& !task.getDuration().isNegative() && !task.getDuration().isZero();
 	}
 
 	private boolean isTasksOverlapping(Task task1, Task task2) {
@@ -54,23 +117,162 @@ public class InMemoryTaskManager implements TaskManager {
 	}
 
 	@Override
-	public ArrayList<Task> getTasks() {
-		return new ArrayList<>(this.tasks.values());
+	public List<Task> getTasks() {
+		return tasksSnapshot.get();
+	}
+
+	@Override
+	public List<Subtask> getSubtasks() {
+		return subtasksSnapshot.get();
+	}
+
+	@Override
+	public List<Epic> getEpics() {
+		return epicsSnapshot.get();
+	}
+
+	@Override
+	public List<Task> getPrioritizedTasks() {
+		return prioritizedSnapshot.get();
+	}
+
+	/**
+	 * Страница задач в порядке хранения, начиная со следующей за afterId (null - с начала).
+	 * Если задача-курсор уже удалена, обход продолжается с первой задачи с большим id:
+	 * идентификаторы выдаются по возрастанию. Стоимость зависит от limit, а не от числа задач.
+	 */
+	@Override
+	public List<Task> getTasks(Integer afterId, int limit) {
+		return getPage(tasks, afterId, limit);
+	}
+
+	@Override
+	public List<Subtask> getSubtasks(Integer afterId, int limit) {
+		return getPage(subtasks, afterId, limit);
+	}
+
+	@Override
+	public List<Epic> getEpics(Integer afterId, int limit) {
+		return getPage(epics, afterId, limit);
 	}
 
+	/**
+	 * Страница prioritizedTasks после курсора (afterStartTime, afterId) в том же порядке,
+	 * что и в TreeSet. Без курсора (afterStartTime == null) страница берётся с начала.
+	 */
 	@Override
-	public ArrayList<Subtask> getSubtasks() {
-		return new ArrayList<>(subtasks.values());
+	public List<Task> getPrioritizedTasks(LocalDateTime afterStartTime, Integer afterId, int limit) {
+		validateLimit(limit);
+		Iterator<Task> iterator = afterStartTime == null
+				? prioritizedTasks.iterator()
+				: prioritizedTasks.tailSet(createTimeProbe(afterStartTime,
+						afterId == null ? Integer.MIN_VALUE : afterId), false).iterator();
+		List<Task> page = new ArrayList<>(Math.min(limit, prioritizedTasks.size()));
+		while (iterator.hasNext() && page.size() < limit) {
+			page.add(iterator.next());
+		}
+		return Collections.unmodifiableList(page);
 	}
 
+	/**
+	 * Ленивый обход хранилища: если снимок списка уже собран, поток идёт по нему,
+	 * иначе прямо по хранилищу без копирования. Поток нужно дочитать до следующего изменения.
+	 */
 	@Override
-	public ArrayList<Epic> getEpics() {
-		return new ArrayList<>(epics.values());
+	public Stream<Task> streamTasks() {
+		return stream(tasksSnapshot, tasks.values());
 	}
 
 	@Override
-	public ArrayList<Task> getPrioritizedTasks() {
-		return new ArrayList<>(prioritizedTasks);
+	public Stream<Subtask> streamSubtasks() {
+		return stream(subtasksSnapshot, subtasks.values());
+	}
+
+	@Override
+	public Stream<Epic> streamEpics() {
+		return stream(epicsSnapshot, epics.values());
+	}
+
+	@Override
+	public Stream<Task> streamPrioritizedTasks() {
+		return stream(prioritizedSnapshot, prioritizedTasks);
+	}
+
+	private static <E> Stream<E> stream(Snapshot<E> snapshot, Collection<E> storage) {
+		List<E> current = snapshot.peek();
+		return current != null ? current.stream() : storage.stream();
+	}
+
+	private static <T extends Task> List<T> getPage(IntLinkedHashMap<T> storage, Integer afterId, int limit) {
+		validateLimit(limit);
+		boolean cursorLost = afterId != null && !storage.containsKey(afterId);
+		Iterator<T> iterator = afterId == null || cursorLost
+				? storage.values().iterator()
+				: storage.valuesAfter(afterId);
+		List<T> page = new ArrayList<>(Math.min(limit, storage.size()));
+		while (iterator.hasNext() && page.size() < limit) {
+			T entity = iterator.next();
+			if (cursorLost && entity.getId() <= afterId) {
+				continue;
+			}
+			cursorLost = false;
+			page.add(entity);
+		}
+		return Collections.unmodifiableList(page);
+	}
+
+	private static void validateLimit(int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Limit must be positive");
+		}
+	}
+
+	/**
+	 * Ищет самые ранние свободные окна длиной не меньше duration внутри [from, to).
+	 * Обход начинается с интервала, покрывающего from, и идёт по prioritizedTasks
+	 * только до тех пор, пока не найдено limit окон.
+	 */
+	@Override
+	public List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+		if (from == null || to == null || duration == null) {
+			throw new IllegalArgumentException("Time range and duration must be specified");
+		}
+		if (duration.isNegative() || duration.isZero() || limit <= 0) {
+			throw new IllegalArgumentException("Duration and limit must be positive");
+		}
+
+		List<TimeSlot> slots = new ArrayList<>();
+		LocalDateTime cursor = from;
+		Map.Entry<LocalDateTime, Task> covering = intervalIndex.lowerEntry(from);
+		if (covering != null && covering.getValue().getEndTime().isAfter(cursor)) {
+			cursor = covering.getValue().getEndTime();
+		}
+
+		for (Task task : prioritizedTasks.tailSet(createTimeProbe(from, Integer.MIN_VALUE))) {
+			if (!cursor.isBefore(to) || !task.getStartTime().isBefore(to)) {
+				break;
+			}
+			if (task.getStartTime().isAfter(cursor)) {
+				addFreeSlot(slots, cursor, task.getStartTime(), duration);
+				if (slots.size() == limit) {
+					return slots;
+				}
+			}
+			LocalDateTime end = task.getEndTime();
+			if (end != null && end.isAfter(cursor)) {
+				cursor = end;
+			}
+		}
+		if (cursor.isBefore(to)) {
+			addFreeSlot(slots, cursor, to, duration);
+		}
+		return slots;
+	}
+
+	private static void addFreeSlot(List<TimeSlot> slots, LocalDateTime start, LocalDateTime end, Duration duration) {
+		if (Duration.between(start, end).compareTo(duration) >= 0) {
+			slots.add(new TimeSlot(start, end));
+		}
 	}
 
 	@Override
@@ -78,31 +280,34 @@ public class InMemoryTaskManager implements TaskManager {
 		final Epic epic = Optional.ofNullable(epics.get(epicId))
 				.orElseThrow(() -> new NotFoundException("Epic not found with id: " + epicId));
 
-		return epic.getSubtaskIds().stream()
-				.map(subtasks::get)
-				.collect(Collectors.toCollection(ArrayList::new));
+		ArrayList<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskCount());
+		epic.forEachSubtaskId(id -> epicSubtasks.add(subtasks.get(id)));
+		return epicSubtasks;
 	}
 
-	private <T extends Task> T getEntity(int id, Map<Integer, T> storage, Function<T, T> copyConstructor) {
+	/**
+	 * Хранимые задачи заморожены, поэтому отдаются и попадают в историю без копирования.
+	 */
+	private <T extends Task> T getEntity(int id, IntLinkedHashMap<T> storage) {
 		final T entity = Optional.ofNullable(storage.get(id))
 				.orElseThrow(() -> new NotFoundException("Task entity with id " + id + " not found"));
 		historyManager.addTask(entity);
-		return copyConstructor.apply(entity);
+		return entity;
 	}
 
 	@Override
 	public Task getTask(int id) {
-		return getEntity(id, tasks, Task::new);
+		return getEntity(id, tasks);
 	}
 
 	@Override
 	public Subtask getSubtask(int id) {
-		return getEntity(id, subtasks, Subtask::new);
+		return getEntity(id, subtasks);
 	}
 
 	@Override
 	public Epic getEpic(int id) {
-		return getEntity(id, epics, Epic::new);
+		return getEntity(id, epics);
 	}
 
 	@Override
@@ -110,11 +315,68 @@ public class InMemoryTaskManager implements TaskManager {
 		return historyManager.getHistory();
 	}
 
+	@Override
+	public List<Task> getHistory(int limit) {
+		return historyManager.getHistory(limit);
+	}
+
+	/**
+	 * id задач истории в том же порядке, что и getHistory, - чтобы сохранить историю вместе с данными.
+	 */
+	protected int[] getHistoryIds() {
+		return historyManager.getHistory().stream().mapToInt(Task::getId).toArray();
+	}
+
+	/**
+	 * Восстанавливает историю по сохранённым id за один проход. Вызывается после restoreLoadedState:
+	 * задачи уже заморожены и попадают в историю без копирования. id удалённых задач пропускаются.
+	 */
+	protected void restoreHistory(int[] ids) {
+		for (int id : ids) {
+			Task task = tasks.get(id);
+			if (task == null) {
+				task = subtasks.get(id);
+			}
+			if (task == null) {
+				task = epics.get(id);
+			}
+			if (task != null) {
+				historyManager.addTask(task);
+			}
+		}
+	}
+
 	private int getNextId() {
 		return ++generatorId;
 	}
 
-	private void assignOrValidateId(Task task, Map<Integer, ? extends Task> storage) {
+	private static <T extends Task> T findById(IntLinkedHashMap<T> storage, Integer id) {
+		return id == null ? null : storage.get(id);
+	}
+
+	/**
+	 * Менеджер хранит собственную замороженную копию, чтобы переданный объект
+	 * оставался изменяемым у вызывающего кода и не был связан с хранилищем.
+	 */
+	private static <T extends Task> T frozenCopy(T task, UnaryOperator<T> copyConstructor) {
+		T copy = copyConstructor.apply(task);
+		copy.freeze();
+		return copy;
+	}
+
+	/**
+	 * Изменение эпика через новую версию: копия, правка, заморозка и замена в хранилище и истории.
+	 */
+	private void editEpic(int epicId, Consumer<Epic> change) {
+		Epic edited = new Epic(epics.get(epicId));
+		change.accept(edited);
+		edited.freeze();
+		epics.put(epicId, edited);
+		historyManager.replace(edited);
+		epicsSnapshot.invalidate();
+	}
+
+	private void assignOrValidateId(Task task, IntLinkedHashMap<? extends Task> storage) {
 		Integer id = task.getId();
 		if (id == null) {
 			task.setId(getNextId());
@@ -131,16 +393,19 @@ public class InMemoryTaskManager implements TaskManager {
 		}
 		assignOrValidateId(task, tasks);
 
-		tasks.put(task.getId(), task);
-		addToPrioritized(task);
-		return task.getId();
+		Task stored = frozenCopy(task, Task::new);
+		tasks.put(stored.getId(), stored);
+		tasksSnapshot.invalidate();
+		addToPrioritized(stored);
+		return stored.getId();
 	}
 
 	@Override
 	public Integer createEpic(Epic epic) {
 		assignOrValidateId(epic, epics);
 
-		epics.put(epic.getId(), epic);
+		epics.put(epic.getId(), frozenCopy(epic, Epic::new));
+		epicsSnapshot.invalidate();
 		return epic.getId();
 	}
 
@@ -153,13 +418,155 @@ public class InMemoryTaskManager implements TaskManager {
 		}
 		assignOrValidateId(subtask, subtasks);
 
-		subtasks.put(subtask.getId(), subtask);
-		addToPrioritized(subtask);
+		Subtask stored = frozenCopy(subtask, Subtask::new);
+		subtasks.put(stored.getId(), stored);
+		subtasksSnapshot.invalidate();
+		addToPrioritized(stored);
+
+		EpicAggregate aggregate = getEpicAggregate(epic);
+		aggregate.add(stored);
+		editEpic(epic.getId(), edited -> {
+			edited.addSubtaskId(stored.getId());
+			aggregate.applyTo(edited);
+		});
 
-		epic.addSubtaskId(subtask.getId());
-		updateEpicParams(epic);
+		return stored.getId();
+	}
 
-		return subtask.getId();
+	@Override
+	public List<Integer> createTasks(List<Task> batch) {
+		validateBatchIds(batch, tasks);
+		validateBatchTimes(batch);
+
+		List<Integer> ids = new ArrayList<>(batch.size());
+		for (Task task : batch) {
+			assignOrValidateId(task, tasks);
+			Task stored = frozenCopy(task, Task::new);
+			tasks.put(stored.getId(), stored);
+			addToPrioritized(stored);
+			ids.add(stored.getId());
+		}
+		tasksSnapshot.invalidate();
+		return ids;
+	}
+
+	@Override
+	public List<Integer> createSubtasks(List<Subtask> batch) {
+		for (Subtask subtask : batch) {
+			if (!epics.containsKey(subtask.getEpicId())) {
+				throw new NotFoundException("Epic with id " + subtask.getEpicId() + " does not exist");
+			}
+		}
+		validateBatchIds(batch, subtasks);
+		validateBatchTimes(batch);
+
+		List<Integer> ids = new ArrayList<>(batch.size());
+		IntLinkedHashMap<IntLinkedHashSet> addedByEpic = new IntLinkedHashMap<>();
+		for (Subtask subtask : batch) {
+			assignOrValidateId(subtask, subtasks);
+			Subtask stored = frozenCopy(subtask, Subtask::new);
+			subtasks.put(stored.getId(), stored);
+			addToPrioritized(stored);
+			ids.add(stored.getId());
+
+			Epic epic = epics.get(stored.getEpicId());
+			getEpicAggregate(epic).add(stored);
+			IntLinkedHashSet added = addedByEpic.get(epic.getId());
+			if (added == null) {
+				added = new IntLinkedHashSet();
+				addedByEpic.put(epic.getId(), added);
+			}
+			added.add(stored.getId());
+		}
+		// Новая версия каждого затронутого эпика создаётся один раз на пакет
+		for (Subtask subtask : batch) {
+			IntLinkedHashSet added = addedByEpic.remove(subtask.getEpicId());
+			if (added != null) {
+				editEpic(subtask.getEpicId(), edited -> {
+					added.forEach(edited::addSubtaskId);
+					getEpicAggregate(edited).applyTo(edited);
+				});
+			}
+		}
+		subtasksSnapshot.invalidate();
+		return ids;
+	}
+
+	@Override
+	public void updateTasks(List<Task> batch) {
+		List<Task> saved = new ArrayList<>(batch.size());
+		IntLinkedHashSet batchIds = new IntLinkedHashSet(batch.size());
+		List<Task> existing = new ArrayList<>(batch.size());
+		for (Task task : batch) {
+			final Task savedTask = findById(tasks, task.getId());
+			if (savedTask == null) {
+				continue;
+			}
+			if (!batchIds.add(task.getId())) {
+				throw new IllegalArgumentException("Task with id " + task.getId() + " is updated twice in one batch");
+			}
+			saved.add(savedTask);
+			existing.add(task);
+		}
+
+		// Старые версии не должны мешать задачам пакета занять их место
+		saved.forEach(this::deleteFromPrioritized);
+		try {
+			validateBatchTimes(existing);
+		} catch (TimeConflictException e) {
+			saved.forEach(this::addToPrioritized);
+			throw e;
+		}
+
+		for (Task task : existing) {
+			Task stored = frozenCopy(task, Task::new);
+			tasks.put(stored.getId(), stored);
+			historyManager.replace(stored);
+			addToPrioritized(stored);
+		}
+		tasksSnapshot.invalidate();
+	}
+
+	/**
+	 * Проверяет id пакета до каких-либо изменений: предопределённые и будущие сгенерированные id
+	 * не должны совпадать ни с сохранёнными, ни между собой.
+	 */
+	private void validateBatchIds(List<? extends Task> batch, IntLinkedHashMap<? extends Task> storage) {
+		IntLinkedHashSet batchIds = new IntLinkedHashSet(batch.size());
+		int nextId = generatorId;
+		for (Task task : batch) {
+			int id = task.getId() != null ? task.getId() : ++nextId;
+			if (storage.containsKey(id) || !batchIds.add(id)) {
+				String className = task.getClass().getSimpleName();
+				throw new IllegalArgumentException(className + " with id " + id + " already exists");
+			}
+		}
+	}
+
+	/**
+	 * Проверка пакета одним проходом по задачам, отсортированным по времени начала:
+	 * каждая задача сверяется с уже сохранёнными через индекс и с самой длинной
+	 * из предыдущих задач пакета. Пересечение любой пары отменяет весь пакет.
+	 */
+	private void validateBatchTimes(List<? extends Task> batch) {
+		List<Task> timed = new ArrayList<>(batch.size());
+		for (Task task : batch) {
+			if (task.getStartTime() != null) {
+				timed.add(task);
+			}
+		}
+		timed.sort(Comparator.comparing(Task::getStartTime));
+
+		Task widest = null;
+		for (Task task : timed) {
+			if ((widest != null && isTasksOverlapping(task, widest)) || isTasksOverlapping(task)) {
+				String className = task.getClass().getSimpleName();
+				throw new TimeConflictException(className + " overlaps with an existing one");
+			}
+			if (widest == null || task.getEndTime().isAfter(widest.getEndTime())) {
+				widest = task;
+			}
+		}
 	}
 
 	private void addToPrioritized(Task task) {
@@ -167,11 +574,15 @@ public class InMemoryTaskManager implements TaskManager {
 			return;
 		}
 		prioritizedTasks.add(task);
+		prioritizedSnapshot.invalidate();
+		if (hasInterval(task)) {
+			intervalIndex.put(task.getStartTime(), task);
+		}
 	}
 
 	@Override
 	public void updateTask(Task task) {
-		final Task savedTask = tasks.get(task.getId());
+		final Task savedTask = findById(tasks, task.getId());
 		if (savedTask == null) {
 			return;
 		}
@@ -179,90 +590,139 @@ public class InMemoryTaskManager implements TaskManager {
 			throw new TimeConflictException("Task overlaps with an existing one.");
 		}
 		deleteFromPrioritized(savedTask);
-		tasks.put(task.getId(), task);
-		addToPrioritized(task);
+		Task stored = frozenCopy(task, Task::new);
+		tasks.put(stored.getId(), stored);
+		historyManager.replace(stored);
+		tasksSnapshot.invalidate();
+		addToPrioritized(stored);
 	}
 
 	@Override
 	public void updateEpic(Epic epic) {
-		final Epic savedEpic = epics.get(epic.getId());
+		final Epic savedEpic = findById(epics, epic.getId());
 		if (savedEpic != null) {
-			savedEpic.setName(epic.getName());
-			savedEpic.setDescription(epic.getDescription());
+			editEpic(savedEpic.getId(), edited -> {
+				edited.setName(epic.getName());
+				edited.setDescription(epic.getDescription());
+			});
 		}
 	}
 
-	protected void updateEpicParams(Epic epic) {
-		updateEpicStatus(epic);
-		updateEpicTimes(epic);
+	/**
+	 * Агрегат эпика создаётся при первом изменении его подзадач: эпики, чьи параметры
+	 * загружены из снимка, до этого обходятся без него.
+	 */
+	private EpicAggregate getEpicAggregate(Epic epic) {
+		EpicAggregate aggregate = epicAggregates.get(epic.getId());
+		if (aggregate == null) {
+			aggregate = buildEpicAggregate(epic);
+			epicAggregates.put(epic.getId(), aggregate);
+		}
+		return aggregate;
 	}
 
-	private void updateEpicStatus(Epic epic) {
-		if (epic == null) return;
-
-		List<Integer> subs = epic.getSubtaskIds();
-		if (subs.isEmpty()) {
-			epic.setStatus(NEW);
-			return;
-		}
-		TaskStatus status = null;
-		for (int id : subs) {
+	/**
+	 * Агрегат по подзадачам, которые сейчас лежат в хранилище. Только читает хранилища,
+	 * поэтому при загрузке эпики можно считать параллельно.
+	 */
+	private EpicAggregate buildEpicAggregate(Epic epic) {
+		EpicAggregate aggregate = new EpicAggregate();
+		epic.forEachSubtaskId(id -> {
 			final Subtask subtask = subtasks.get(id);
-			if (status == null) {
-				status = subtask.getStatus();
-				continue;
+			if (subtask != null) {
+				aggregate.add(subtask);
 			}
+		});
+		return aggregate;
+	}
 
-			if (status == subtask.getStatus()
-					&& status != IN_PROGRESS) {
-				continue;
+	/**
+	 * Достраивает состояние после прямого заполнения хранилищ при загрузке: связывает подзадачи
+	 * с эпиками, пересчитывает эпики, заполняет prioritizedTasks, замораживает задачи
+	 * и сдвигает generatorId за максимальный id. Эпик с сошедшейся контрольной суммой
+	 * сохраняет загруженные параметры, остальные пересчитываются по подзадачам.
+	 */
+	protected void restoreLoadedState() {
+		restoreLoadedState(null);
+	}
+
+	/**
+	 * @param pool пул для пересчёта эпиков: каждый эпик читает только свои подзадачи,
+	 *             поэтому эпики считаются независимо; null - пересчёт в текущем потоке
+	 */
+	protected void restoreLoadedState(ForkJoinPool pool) {
+		int maxId = generatorId;
+		List<Task> timed = new ArrayList<>();
+		for (Task task : tasks.values()) {
+			maxId = Math.max(maxId, task.getId());
+			task.freeze();
+			if (task.getStartTime() != null) {
+				timed.add(task);
 			}
-			epic.setStatus(IN_PROGRESS);
-			return;
 		}
-		epic.setStatus(status);
+		for (Subtask subtask : subtasks.values()) {
+			Epic epic = epics.get(subtask.getEpicId());
+			if (epic == null) {
+				throw new IllegalStateException("Epic not found for subtask ID " + subtask.getId());
+			}
+			maxId = Math.max(maxId, subtask.getId());
+			epic.addSubtaskId(subtask.getId());
+			subtask.freeze();
+			if (subtask.getStartTime() != null) {
+				timed.add(subtask);
+			}
+		}
+		List<Epic> loadedEpics = new ArrayList<>(epics.values());
+		for (Epic epic : loadedEpics) {
+			maxId = Math.max(maxId, epic.getId());
+		}
+		// Устаревшие эпики считаются без записи в epicAggregates, агрегаты кладутся потом в этом потоке
+		Function<Epic, EpicAggregate> rebuild = epic ->
+				EpicAggregate.hasValidParams(epic, subtasks) ? null : buildEpicAggregate(epic);
+		List<EpicAggregate> rebuilt = pool == null
+				? loadedEpics.stream().map(rebuild).toList()
+				: pool.submit(() -> loadedEpics.parallelStream().map(rebuild).toList()).join();
+		for (int i = 0; i < loadedEpics.size(); i++) {
+			Epic epic = loadedEpics.get(i);
+			EpicAggregate aggregate = rebuilt.get(i);
+			if (aggregate != null) {
+				aggregate.applyTo(epic);
+				epicAggregates.put(epic.getId(), aggregate);
+			}
+			epic.freeze();
+		}
+		loadPrioritized(timed);
+		generatorId = maxId;
+		invalidateSnapshots();
 	}
 
-	private void updateEpicTimes(Epic epic) {
-		if (epic == null) return;
-
-		List<Subtask> validSubtasks = epic.getSubtaskIds().stream()
-				.map(subtasks::get)
-				.filter(Objects::nonNull)
-				.toList();
-
-		if (validSubtasks.isEmpty()) {
-			epic.setDuration(Duration.ZERO);
-			epic.setStartTime(null);
-			epic.setEndTime(null);
-			return;
+	/**
+	 * Заполняет prioritizedTasks и intervalIndex разом: после сортировки деревья
+	 * строятся из упорядоченных списков за O(n), а не n вставками.
+	 */
+	private void loadPrioritized(List<Task> timed) {
+		timed.sort(prioritizedTasks.comparator());
+		List<Map.Entry<LocalDateTime, Task>> intervals = new ArrayList<>();
+		for (Task task : timed) {
+			if (!hasInterval(task)) {
+				continue;
+			}
+			Map.Entry<LocalDateTime, Task> entry = Map.entry(task.getStartTime(), task);
+			int last = intervals.size() - 1;
+			if (last >= 0 && intervals.get(last).getKey().equals(task.getStartTime())) {
+				intervals.set(last, entry);
+			} else {
+				intervals.add(entry);
+			}
 		}
-
-		Duration totalDuration = validSubtasks.stream()
-				.map(Subtask::getDuration)
-				.filter(d -> d != null && !d.isNegative() && !d.isZero())
-				.reduce(Duration.ZERO, Duration::plus);
-
-		LocalDateTime earliestStart = validSubtasks.stream()
-				.map(Subtask::getStartTime)
-				.filter(Objects::nonNull)
-				.min(LocalDateTime::compareTo)
-				.orElse(null);
-
-		LocalDateTime latestEnd = validSubtasks.stream()
-				.map(Subtask::getEndTime)
-				.filter(Objects::nonNull)
-				.max(LocalDateTime::compareTo)
-				.orElse(null);
-
-		epic.setDuration(totalDuration);
-		epic.setStartTime(earliestStart);
-		epic.setEndTime(latestEnd);
+		prioritizedTasks.addAll(SortedViews.ofSet(timed, prioritizedTasks.comparator()));
+		intervalIndex.putAll(SortedViews.ofMap(intervals, intervalIndex.comparator()));
+		prioritizedSnapshot.invalidate();
 	}
 
 	@Override
 	public void updateSubtask(Subtask subtask) {
-		final Subtask oldSubtask = Optional.ofNullable(subtasks.get(subtask.getId()))
+		final Subtask oldSubtask = Optional.ofNullable(findById(subtasks, subtask.getId()))
 				.orElseThrow(() -> new NotFoundException("There is no subtask with id = " + subtask.getId()));
 		final Epic oldEpic = Optional.ofNullable(epics.get(oldSubtask.getEpicId()))
 				.orElseThrow(() -> new NotFoundException("There is no epic with epicId = " + oldSubtask.getEpicId()));
@@ -273,15 +733,33 @@ public class InMemoryTaskManager implements TaskManager {
 			throw new TimeConflictException("Subtask overlaps with an existing one.");
 		}
 
-		oldEpic.removeSubtask(subtask.getId());
 		deleteFromPrioritized(oldSubtask);
-
-		subtasks.put(subtask.getId(), subtask);
-		newEpic.addSubtaskId(subtask.getId());
-		addToPrioritized(subtask);
-
-		updateEpicParams(oldEpic);
-		updateEpicParams(newEpic);
+		Subtask stored = frozenCopy(subtask, Subtask::new);
+		subtasks.put(stored.getId(), stored);
+		historyManager.replace(stored);
+		subtasksSnapshot.invalidate();
+		addToPrioritized(stored);
+
+		EpicAggregate oldAggregate = getEpicAggregate(oldEpic);
+		oldAggregate.remove(stored.getId());
+		EpicAggregate newAggregate = getEpicAggregate(newEpic);
+		newAggregate.add(stored);
+		if (oldEpic.getId().equals(newEpic.getId())) {
+			editEpic(newEpic.getId(), edited -> {
+				edited.removeSubtask(stored.getId());
+				edited.addSubtaskId(stored.getId());
+				newAggregate.applyTo(edited);
+			});
+			return;
+		}
+		editEpic(oldEpic.getId(), edited -> {
+			edited.removeSubtask(stored.getId());
+			oldAggregate.applyTo(edited);
+		});
+		editEpic(newEpic.getId(), edited -> {
+			edited.addSubtaskId(stored.getId());
+			newAggregate.applyTo(edited);
+		});
 	}
 
 	@Override
@@ -290,14 +768,18 @@ public class InMemoryTaskManager implements TaskManager {
 		if (task == null) {
 			return;
 		}
+		tasksSnapshot.invalidate();
 		historyManager.remove(id);
 		deleteFromPrioritized(task);
 	}
 
 	private void deleteFromPrioritized(Task task) {
-		if (task != null) {
-			prioritizedTasks.remove(task);
+		if (task == null || task.getStartTime() == null) {
+			return;
 		}
+		prioritizedTasks.remove(task);
+		prioritizedSnapshot.invalidate();
+		intervalIndex.remove(task.getStartTime(), task);
 	}
 
 	@Override
@@ -306,11 +788,14 @@ public class InMemoryTaskManager implements TaskManager {
 		if (epic == null) {
 			return;
 		}
+		epicsSnapshot.invalidate();
+		subtasksSnapshot.invalidate();
+		epicAggregates.remove(id);
 		historyManager.remove(id);
-		for (Integer subtaskId : epic.getSubtaskIds()) {
-			subtasks.remove(subtaskId);
+		epic.forEachSubtaskId(subtaskId -> {
+			deleteFromPrioritized(subtasks.remove(subtaskId));
 			historyManager.remove(subtaskId);
-		}
+		});
 	}
 
 	@Override
@@ -319,12 +804,16 @@ public class InMemoryTaskManager implements TaskManager {
 		if (subtask == null) {
 			return;
 		}
+		subtasksSnapshot.invalidate();
 		historyManager.remove(id);
 		deleteFromPrioritized(subtask);
 
-		Epic epic = epics.get(subtask.getEpicId());
-		epic.removeSubtask(id);
-		updateEpicParams(epic);
+		EpicAggregate aggregate = getEpicAggregate(epics.get(subtask.getEpicId()));
+		aggregate.remove(id);
+		editEpic(subtask.getEpicId(), edited -> {
+			edited.removeSubtask(id);
+			aggregate.applyTo(edited);
+		});
 	}
 
 	@Override
@@ -334,6 +823,7 @@ public class InMemoryTaskManager implements TaskManager {
 			deleteFromPrioritized(task);
         }
         tasks.clear();
+		tasksSnapshot.invalidate();
 	}
 
 	@Override
@@ -344,10 +834,15 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         for (Epic epic : epics.values()) {
-            epic.cleanSubtaskIds();
-            updateEpicParams(epic);
+            EpicAggregate aggregate = getEpicAggregate(epic);
+            aggregate.clear();
+            editEpic(epic.getId(), edited -> {
+                edited.cleanSubtaskIds();
+                aggregate.applyTo(edited);
+            });
         }
 		subtasks.clear();
+		subtasksSnapshot.invalidate();
 	}
 
 	@Override
@@ -356,10 +851,55 @@ public class InMemoryTaskManager implements TaskManager {
 				.map(Task::getId)
 				.forEach(historyManager::remove);
 		epics.clear();
+		epicsSnapshot.invalidate();
+		epicAggregates.clear();
 
-		subtasks.values().stream()
-				.map(Task::getId)
-				.forEach(historyManager::remove);
+		for (Subtask subtask : subtasks.values()) {
+			historyManager.remove(subtask.getId());
+			deleteFromPrioritized(subtask);
+		}
 		subtasks.clear();
+		subtasksSnapshot.invalidate();
+	}
+
+	protected void invalidateSnapshots() {
+		tasksSnapshot.invalidate();
+		epicsSnapshot.invalidate();
+		subtasksSnapshot.invalidate();
+		prioritizedSnapshot.invalidate();
+	}
+
+	/**
+	 * Неизменяемый снимок коллекции менеджера.
+	 * Пересобирается лениво при первом чтении после изменения, поэтому повторные чтения
+	 * без промежуточных изменений возвращают один и тот же объект без копирования.
+	 */
+	protected static final class Snapshot<E> {
+		private final Supplier<List<E>> builder;
+		private volatile List<E> current;
+
+		private Snapshot(Supplier<List<E>> builder) {
+			this.builder = builder;
+		}
+
+		List<E> get() {
+			List<E> snapshot = current;
+			if (snapshot == null) {
+				snapshot = builder.get();
+				current = snapshot;
+			}
+			return snapshot;
+		}
+
+		/**
+		 * Текущий снимок или null, если он устарел и должен быть пересобран.
+		 */
+		List<E> peek() {
+			return current;
+		}
+
+		void invalidate() {
+			current = null;
+		}
 	}
 }
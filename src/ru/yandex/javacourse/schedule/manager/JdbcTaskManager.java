@@ -0,0 +1,218 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Менеджер поверх встроенной базы данных (H2 или SQLite в файловом режиме) через JDBC.
+ * Рабочее состояние, как и у остальных менеджеров, лежит в памяти, а в базу уходят только
+ * изменённые строки: каждое изменение - одна транзакция с пакетными PreparedStatement.
+ * При открытии менеджер загружает задачи, уже лежащие в базе.
+ * <p>
+ * Для эпиков хранятся только имя и описание: статус, длительность и время эпика
+ * поддерживаются в памяти инкрементально и при загрузке пересчитываются по строкам подзадач.
+ * Драйвер базы должен быть в classpath.
+ */
+public class JdbcTaskManager extends PersistentTaskManager implements AutoCloseable {
+    private static final String[] SCHEMA = {
+            """
+            CREATE TABLE IF NOT EXISTS tasks (
+                id INTEGER PRIMARY KEY,
+                type VARCHAR(16) NOT NULL,
+                name VARCHAR,
+                status VARCHAR(16),
+                description VARCHAR,
+                duration_minutes BIGINT,
+                start_time VARCHAR(32),
+                end_time VARCHAR(32),
+                epic_id INTEGER
+            )""",
+            // Время хранится в ISO-8601: для лет 0000-9999 строки сортируются так же, как моменты времени
+            "CREATE INDEX IF NOT EXISTS tasks_start_time ON tasks (start_time)",
+            "CREATE INDEX IF NOT EXISTS tasks_end_time ON tasks (end_time)",
+            "CREATE INDEX IF NOT EXISTS tasks_epic_id ON tasks (epic_id)"
+    };
+    private static final String SELECT_ALL = "SELECT id, type, name, status, description, duration_minutes, "
+            + "start_time, epic_id FROM tasks ORDER BY id";
+    private static final String INSERT = "INSERT INTO tasks (id, type, name, status, description, "
+            + "duration_minutes, start_time, end_time, epic_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final String url;
+    private final Connection connection;
+    private final PreparedStatement deleteById;
+    private final PreparedStatement insert;
+
+    public JdbcTaskManager(String url) {
+        this.url = url;
+        try {
+            connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            connection.setAutoCommit(false);
+            deleteById = connection.prepareStatement("DELETE FROM tasks WHERE id = ?");
+            insert = connection.prepareStatement(INSERT);
+            load();
+        } catch (SQLException e) {
+            throw new ManagerSaveException("Failed to open database: " + url, e);
+        }
+    }
+
+    private void load() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(SELECT_ALL)) {
+            while (rows.next()) {
+                putLoaded(readTask(rows));
+            }
+        }
+        connection.commit();
+        restoreLoadedState();
+    }
+
+    private static Task readTask(ResultSet rows) throws SQLException {
+        int id = rows.getInt("id");
+        TaskType type = TaskType.valueOf(rows.getString("type"));
+        String name = rows.getString("name");
+        String description = rows.getString("description");
+        String status = rows.getString("status");
+        TaskStatus taskStatus = status == null ? null : TaskStatus.valueOf(status);
+        Duration duration = Duration.ofMinutes(rows.getLong("duration_minutes"));
+        String startTime = rows.getString("start_time");
+        LocalDateTime start = startTime == null ? null : LocalDateTime.parse(startTime);
+        return switch (type) {
+            case EPIC -> new Epic(id, name, description);
+            case SUBTASK -> new Subtask(id, name, description, taskStatus, duration, start, rows.getInt("epic_id"));
+            case TASK -> new Task(id, name, description, taskStatus, duration, start);
+        };
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    private void inTransaction(SqlAction action) {
+        try {
+            action.run();
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw new ManagerSaveException("Failed to write to database: " + url, e);
+        }
+    }
+
+    /**
+     * Строки заменяются целиком: пакет удалений и пакет вставок в одной транзакции.
+     * Так не нужен MERGE или ON CONFLICT, синтаксис которых у H2 и SQLite разный.
+     */
+    @Override
+    protected void onSaved(TaskType type, List<Integer> ids) {
+        inTransaction(() -> {
+            int rows = 0;
+            for (Integer id : ids) {
+                Task task = id == null ? null : findStored(type, id);
+                if (task == null) {
+                    continue;
+                }
+                deleteById.setInt(1, id);
+                deleteById.addBatch();
+                bindInsert(task);
+                insert.addBatch();
+                rows++;
+            }
+            if (rows > 0) {
+                deleteById.executeBatch();
+                insert.executeBatch();
+            }
+        });
+    }
+
+    private Task findStored(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> epics.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    private void bindInsert(Task task) throws SQLException {
+        boolean epic = task.getType() == TaskType.EPIC;
+        insert.setInt(1, task.getId());
+        insert.setString(2, task.getType().name());
+        insert.setString(3, task.getName());
+        insert.setString(4, epic || task.getStatus() == null ? null : task.getStatus().name());
+        insert.setString(5, task.getDescription());
+        if (epic || task.getDuration() == null) {
+            insert.setNull(6, Types.BIGINT);
+        } else {
+            insert.setLong(6, task.getDuration().toMinutes());
+        }
+        insert.setString(7, epic ? null : toText(task.getStartTime()));
+        insert.setString(8, epic ? null : toText(task.getEndTime()));
+        if (task instanceof Subtask subtask) {
+            insert.setInt(9, subtask.getEpicId());
+        } else {
+            insert.setNull(9, Types.INTEGER);
+        }
+    }
+
+    private static String toText(LocalDateTime time) {
+        return time == null ? null : time.toString();
+    }
+
+    @Override
+    protected void onDeleted(TaskType type, int id) {
+        inTransaction(() -> {
+            if (type == TaskType.EPIC) {
+                try (PreparedStatement statement =
+                             connection.prepareStatement("DELETE FROM tasks WHERE id = ? OR epic_id = ?")) {
+                    statement.setInt(1, id);
+                    statement.setInt(2, id);
+                    statement.executeUpdate();
+                }
+            } else {
+                deleteById.setInt(1, id);
+                deleteById.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    protected void onDeletedAll(TaskType type) {
+        inTransaction(() -> {
+            try (PreparedStatement statement = connection.prepareStatement(type == TaskType.EPIC
+                    ? "DELETE FROM tasks WHERE type IN ('EPIC', 'SUBTASK')"
+                    : "DELETE FROM tasks WHERE type = ?")) {
+                if (type != TaskType.EPIC) {
+                    statement.setString(1, type.name());
+                }
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new ManagerSaveException("Failed to close database: " + url, e);
+        }
+    }
+}
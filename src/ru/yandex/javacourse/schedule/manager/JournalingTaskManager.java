@@ -0,0 +1,343 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import ru.yandex.javacourse.schedule.tasks.*;
+import ru.yandex.javacourse.schedule.util.TaskCSVConverter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Менеджер с журналом изменений: каждое изменение дописывает в журнал короткую запись,
+ * поэтому стоимость записи не зависит от числа задач. Когда журнал разрастается, он в фоне
+ * сворачивается в CSV-снимок того же формата, что у FileBackedTaskManager.
+ * Загрузка читает снимок и проигрывает поверх него журналы.
+ * <p>
+ * Записи журнала:
+ * <ul>
+ *     <li>{@code U,<задача в CSV>} - задача создана или изменена;</li>
+ *     <li>{@code D,<тип>,<id>} - задача удалена;</li>
+ *     <li>{@code C,<тип>} - удалены все задачи типа.</li>
+ * </ul>
+ * Записи описывают состояние, а не операции, поэтому повторное проигрывание журнала,
+ * уже вошедшего в снимок, даёт тот же результат.
+ */
+public class JournalingTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private final Path journalFile;
+    private final Path compactingJournalFile;
+    private final int compactionThreshold;
+
+    private ExecutorService compactor;
+    private Future<?> compaction;
+    private BufferedWriter journal;
+    private int journalRecords;
+    private boolean fresh = true;
+
+    public JournalingTaskManager(Path savePath) {
+        this(savePath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold сколько записей журнала копится до фонового сжатия;
+     *                            порог не опускается ниже числа задач, чтобы сжатие
+     *                            в среднем стоило O(1) на изменение
+     */
+    public JournalingTaskManager(Path savePath, int compactionThreshold) {
+        this(savePath, SnapshotFormat.CSV, compactionThreshold);
+    }
+
+    public JournalingTaskManager(Path savePath, SnapshotFormat format, int compactionThreshold) {
+        super(savePath, format);
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        }
+        this.compactionThreshold = compactionThreshold;
+        this.journalFile = siblingFile(savePath, ".journal");
+        this.compactingJournalFile = siblingFile(savePath, ".journal.old");
+    }
+
+    private static Path siblingFile(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    public static JournalingTaskManager loadFromFile(Path file) {
+        return loadFromFile(file, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public static JournalingTaskManager loadFromFile(Path file, int compactionThreshold) {
+        JournalingTaskManager manager = new JournalingTaskManager(file, detectFormat(file), compactionThreshold);
+        manager.fresh = false;
+        ForkJoinPool pool = createLoadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            manager.readSnapshot(file, pool);
+            manager.replay(manager.compactingJournalFile);
+            manager.replay(manager.journalFile);
+            manager.restoreLoadedState(pool);
+            manager.restoreHistory(readHistory(manager.historyFile()));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        // Прошлое сжатие прервалось: доводим его до конца, пока не появились новые записи
+        if (Files.exists(manager.compactingJournalFile)) {
+            manager.compact();
+        }
+        return manager;
+    }
+
+    /**
+     * Проигрывает журнал поверх загруженных задач. Оборванная последняя запись
+     * (сбой посреди дозаписи) пропускается, испорченная запись в середине - ошибка.
+     */
+    private void replay(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line = TaskCSVConverter.readRecord(br);
+            while (line != null) {
+                String nextLine = TaskCSVConverter.readRecord(br);
+                if (!line.isBlank()) {
+                    try {
+                        applyRecord(line);
+                    } catch (RuntimeException e) {
+                        if (nextLine != null) {
+                            throw new ManagerSaveException("Corrupted journal record in " + file + ": " + line, e);
+                        }
+                    }
+                }
+                line = nextLine;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to load journal: " + file, e);
+        }
+    }
+
+    private void applyRecord(String record) {
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+            case 'U' -> {
+                Task task = TaskCSVConverter.fromStringToTask(payload);
+                generatorId = Math.max(generatorId, task.getId());
+                putLoaded(task);
+            }
+            case 'D' -> {
+                String[] params = payload.split(",");
+                removeLoaded(TaskType.valueOf(params[0]), Integer.parseInt(params[1]));
+            }
+            case 'C' -> removeAllLoaded(TaskType.valueOf(payload));
+            default -> throw new IllegalArgumentException("Unknown journal record type: " + record.charAt(0));
+        }
+    }
+
+    private void removeLoaded(TaskType type, int id) {
+        switch (type) {
+            case TASK -> tasks.remove(id);
+            case SUBTASK -> subtasks.remove(id);
+            case EPIC -> {
+                epics.remove(id);
+                subtasks.values().stream()
+                        .filter(subtask -> subtask.getEpicId() == id)
+                        .map(Task::getId)
+                        .toList()
+                        .forEach(subtasks::remove);
+            }
+        }
+    }
+
+    private void removeAllLoaded(TaskType type) {
+        switch (type) {
+            case TASK -> tasks.clear();
+            case SUBTASK -> subtasks.clear();
+            case EPIC -> {
+                epics.clear();
+                subtasks.clear();
+            }
+        }
+    }
+
+    @Override
+    protected void onSaved(TaskType type, List<Integer> ids) {
+        StringBuilder records = new StringBuilder();
+        int count = 0;
+        for (Integer id : ids) {
+            Task task = id == null ? null : findStored(type, id);
+            if (task != null) {
+                records.append("U,");
+                TaskCSVConverter.appendTo(records, task);
+                records.append('\n');
+                count++;
+            }
+        }
+        append(records, count);
+    }
+
+    @Override
+    protected void onDeleted(TaskType type, int id) {
+        append("D," + type + ',' + id + '\n', 1);
+    }
+
+    @Override
+    protected void onDeletedAll(TaskType type) {
+        append("C," + type + '\n', 1);
+    }
+
+    private Task findStored(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> epics.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    private void append(CharSequence records, int count) {
+        if (count == 0) {
+            return;
+        }
+        try {
+            BufferedWriter writer = openJournal();
+            writer.append(records);
+            writer.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to append to journal: " + journalFile, e);
+        }
+        journalRecords += count;
+        if (journalRecords >= Math.max(compactionThreshold, tasks.size() + epics.size() + subtasks.size())) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Новый менеджер, как и FileBackedTaskManager, при первой записи затирает прежние данные.
+     */
+    private BufferedWriter openJournal() throws IOException {
+        if (journal != null) {
+            return journal;
+        }
+        if (fresh) {
+            writeSnapshot(saveFile, format, List.of(), List.of(), List.of(), false);
+            Files.deleteIfExists(compactingJournalFile);
+            journal = Files.newBufferedWriter(journalFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            fresh = false;
+        } else {
+            journal = Files.newBufferedWriter(journalFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return journal;
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Сжатие журнала в снимок: текущий журнал откладывается в сторону, новые записи идут в новый,
+     * а снимок неизменяемых списков пишется в фоне и атомарно заменяет прежний.
+     */
+    private void startCompaction() {
+        if (compaction != null) {
+            if (!compaction.isDone()) {
+                return;
+            }
+            awaitCompaction();
+        }
+
+        List<Task> tasksToWrite = getTasks();
+        List<Epic> epicsToWrite = getEpics();
+        List<Subtask> subtasksToWrite = getSubtasks();
+        try {
+            closeJournal();
+            if (Files.exists(journalFile)) {
+                if (Files.exists(compactingJournalFile)) {
+                    // Прошлое сжатие не удалось: его журнал ещё не вошёл в снимок
+                    Files.write(compactingJournalFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+                    Files.delete(journalFile);
+                } else {
+                    Files.move(journalFile, compactingJournalFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to rotate journal: " + journalFile, e);
+        }
+        journalRecords = 0;
+        fresh = false;
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compaction = compactor.submit(() -> {
+            writeSnapshotAtomically(saveFile, format, tasksToWrite, epicsToWrite, subtasksToWrite, false);
+            Files.deleteIfExists(compactingJournalFile);
+            return null;
+        });
+    }
+
+    private void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Interrupted while compacting journal into " + saveFile, e);
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException("Failed to compact journal into " + saveFile, e.getCause());
+        } finally {
+            compaction = null;
+        }
+    }
+
+    /**
+     * Сворачивает журнал в снимок и дожидается окончания записи.
+     */
+    public void compact() {
+        awaitCompaction();
+        startCompaction();
+        awaitCompaction();
+    }
+
+    int getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Закрывает журнал и дожидается фонового сжатия. Записанные данные остаются на диске.
+     */
+    @Override
+    public void close() {
+        try {
+            closeJournal();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to close journal: " + journalFile, e);
+        } finally {
+            try {
+                awaitCompaction();
+            } finally {
+                if (compactor != null) {
+                    compactor.shutdown();
+                }
+                super.close();
+            }
+        }
+    }
+}
@@ -7,11 +7,64 @@ public class Managers {
 		return new InMemoryTaskManager();
 	}
 
+	/**
+	 * @param historyCapacity сколько последних просмотров хранит история
+	 */
+	public static TaskManager getDefault(int historyCapacity) {
+		return new InMemoryTaskManager(historyCapacity);
+	}
+
+	/**
+	 * @param historyManager история менеджера, например AsyncHistoryManager
+	 */
+	public static TaskManager getDefault(HistoryManager historyManager) {
+		return new InMemoryTaskManager(historyManager);
+	}
+
+	public static TaskManager getConcurrent() {
+		return new ConcurrentTaskManager();
+	}
+
+	/**
+	 * @param historyManager потокобезопасная история, например AsyncHistoryManager
+	 */
+	public static TaskManager getConcurrent(HistoryManager historyManager) {
+		return new ConcurrentTaskManager(historyManager);
+	}
+
 	public static TaskManager getFileBacked(Path savePath) {
 		return new FileBackedTaskManager(savePath);
 	}
 
+	public static TaskManager getJournaling(Path savePath) {
+		return new JournalingTaskManager(savePath);
+	}
+
+	public static TaskManager getSharded(Path directory) {
+		return new ShardedTaskManager(directory);
+	}
+
+	/**
+	 * @param url JDBC URL встроенной базы, например {@code jdbc:h2:file:./tasks} или {@code jdbc:sqlite:tasks.db}
+	 */
+	public static TaskManager getJdbc(String url) {
+		return new JdbcTaskManager(url);
+	}
+
 	public static HistoryManager getDefaultHistory() {
-		return new InMemoryHistoryManager();
+		return new ArrayHistoryManager();
+	}
+
+	public static HistoryManager getDefaultHistory(int capacity) {
+		return new ArrayHistoryManager(capacity);
+	}
+
+	/**
+	 * История с асинхронной записью просмотров; её нужно закрыть, чтобы остановить фоновый поток.
+	 *
+	 * @param queueCapacity сколько просмотров может ждать записи, прежде чем новые начнут отбрасываться
+	 */
+	public static AsyncHistoryManager getAsyncHistory(int queueCapacity) {
+		return new AsyncHistoryManager(queueCapacity);
 	}
 }
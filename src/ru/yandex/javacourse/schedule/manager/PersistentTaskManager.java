@@ -0,0 +1,136 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Менеджер с постоянным хранилищем: после каждого успешного изменения в памяти
+ * сообщает наследнику, какие задачи изменились, а тот решает, как их сохранить -
+ * переписать файл, дописать журнал или обновить строки в базе.
+ */
+public abstract class PersistentTaskManager extends InMemoryTaskManager {
+
+    /**
+     * Складывает загруженную задачу прямо в хранилище, без проверок и пересчёта эпиков.
+     * После загрузки всех задач нужно вызвать restoreLoadedState.
+     */
+    protected void putLoaded(Task task) {
+        switch (task.getType()) {
+            case TASK -> tasks.put(task.getId(), task);
+            case EPIC -> epics.put(task.getId(), (Epic) task);
+            case SUBTASK -> subtasks.put(task.getId(), (Subtask) task);
+        }
+    }
+
+    /**
+     * Вызывается после создания или изменения задач типа type с указанными id.
+     */
+    protected abstract void onSaved(TaskType type, List<Integer> ids);
+
+    /**
+     * Вызывается после удаления задачи; удаление эпика удаляет и его подзадачи.
+     */
+    protected abstract void onDeleted(TaskType type, int id);
+
+    /**
+     * Вызывается после удаления всех задач типа; удаление эпиков удаляет и все подзадачи.
+     */
+    protected abstract void onDeletedAll(TaskType type);
+
+    @Override
+    public Integer createTask(Task task) {
+        Integer taskId = super.createTask(task);
+        onSaved(TaskType.TASK, Collections.singletonList(taskId));
+        return taskId;
+    }
+
+    @Override
+    public Integer createSubtask(Subtask subtask) {
+        Integer subtaskId = super.createSubtask(subtask);
+        onSaved(TaskType.SUBTASK, Collections.singletonList(subtaskId));
+        return subtaskId;
+    }
+
+    @Override
+    public Integer createEpic(Epic epic) {
+        Integer epicId = super.createEpic(epic);
+        onSaved(TaskType.EPIC, Collections.singletonList(epicId));
+        return epicId;
+    }
+
+    @Override
+    public List<Integer> createTasks(List<Task> tasks) {
+        List<Integer> taskIds = super.createTasks(tasks);
+        onSaved(TaskType.TASK, taskIds);
+        return taskIds;
+    }
+
+    @Override
+    public List<Integer> createSubtasks(List<Subtask> subtasks) {
+        List<Integer> subtaskIds = super.createSubtasks(subtasks);
+        onSaved(TaskType.SUBTASK, subtaskIds);
+        return subtaskIds;
+    }
+
+    @Override
+    public void updateTasks(List<Task> tasks) {
+        super.updateTasks(tasks);
+        onSaved(TaskType.TASK, tasks.stream().map(Task::getId).toList());
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        onSaved(TaskType.TASK, Collections.singletonList(task.getId()));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        onSaved(TaskType.EPIC, Collections.singletonList(epic.getId()));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        super.updateSubtask(subtask);
+        onSaved(TaskType.SUBTASK, Collections.singletonList(subtask.getId()));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        super.deleteTask(id);
+        onDeleted(TaskType.TASK, id);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        super.deleteEpic(id);
+        onDeleted(TaskType.EPIC, id);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        super.deleteSubtask(id);
+        onDeleted(TaskType.SUBTASK, id);
+    }
+
+    @Override
+    public void deleteTasks() {
+        super.deleteTasks();
+        onDeletedAll(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteEpics() {
+        super.deleteEpics();
+        onDeletedAll(TaskType.EPIC);
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        super.deleteSubtasks();
+        onDeletedAll(TaskType.SUBTASK);
+    }
+}
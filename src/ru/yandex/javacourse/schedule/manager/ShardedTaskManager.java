@@ -0,0 +1,243 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Менеджер, который хранит задачи в каталоге, по файлу на каждый тип, а при заданном shardSize -
+ * ещё и по диапазонам id: {@code task.csv} или {@code task-0-999.csv}, {@code task-1000-1999.csv}.
+ * Изменение перезаписывает только файлы затронутых диапазонов своего типа,
+ * поэтому правка задачи не трогает подзадачи. Параметры эпиков в файлы не сохраняются
+ * как источник истины: при загрузке они пересчитываются по подзадачам.
+ * Загрузка читает файлы параллельно.
+ */
+public class ShardedTaskManager extends FileBackedTaskManager {
+    private static final Pattern SHARD_NAME = Pattern.compile("(task|epic|subtask)(?:-(\\d+)-(\\d+))?\\.(csv|bin)");
+
+    private final int shardSize;
+    private boolean fresh = true;
+
+    /**
+     * Один файл на тип.
+     */
+    public ShardedTaskManager(Path directory) {
+        this(directory, SnapshotFormat.CSV, 0);
+    }
+
+    /**
+     * @param shardSize сколько подряд идущих id попадает в один файл; 0 - один файл на тип
+     */
+    public ShardedTaskManager(Path directory, SnapshotFormat format, int shardSize) {
+        super(directory, format);
+        if (shardSize < 0) {
+            throw new IllegalArgumentException("Shard size must not be negative");
+        }
+        this.shardSize = shardSize;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    /**
+     * Загружает каталог; формат и размер диапазона берутся из имён файлов.
+     */
+    public static ShardedTaskManager loadFromFile(Path directory) {
+        List<ShardFile> shards = listShards(directory);
+        SnapshotFormat format = shards.isEmpty() ? SnapshotFormat.CSV : shards.get(0).format();
+        int shardSize = shards.isEmpty() ? 0 : shards.get(0).size();
+        for (ShardFile shard : shards) {
+            if (shard.format() != format || shard.size() != shardSize) {
+                throw new ManagerSaveException("Shards of different layouts in " + directory);
+            }
+        }
+
+        ShardedTaskManager manager = new ShardedTaskManager(directory, format, shardSize);
+        manager.fresh = false;
+        ForkJoinPool pool = createLoadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<ForkJoinTask<List<Task>>> reads = new ArrayList<>();
+            for (ShardFile shard : shards) {
+                ForkJoinTask<List<Task>> read = ForkJoinTask.adapt(() -> {
+                    List<Task> loaded = new ArrayList<>();
+                    readSnapshot(shard.path(), format, null, loaded::add);
+                    return loaded;
+                });
+                reads.add(pool == null ? read : pool.submit(read));
+            }
+            for (ForkJoinTask<List<Task>> read : reads) {
+                (pool == null ? read.invoke() : read.join()).forEach(manager::putLoaded);
+            }
+            manager.restoreLoadedState(pool);
+            manager.restoreHistory(readHistory(manager.historyFile()));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * История лежит в каталоге рядом с файлами задач и пишется при close().
+     */
+    @Override
+    protected Path historyFile() {
+        return saveFile.resolve("history");
+    }
+
+    private record ShardFile(Path path, TaskType type, int size, SnapshotFormat format) {
+    }
+
+    private static List<ShardFile> listShards(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<ShardFile> shards = new ArrayList<>();
+            for (Path file : files.sorted().toList()) {
+                Matcher matcher = SHARD_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int size = matcher.group(2) == null ? 0
+                        : Integer.parseInt(matcher.group(3)) - Integer.parseInt(matcher.group(2)) + 1;
+                shards.add(new ShardFile(file, TaskType.valueOf(matcher.group(1).toUpperCase()), size,
+                        matcher.group(4).equals("bin") ? SnapshotFormat.BINARY : SnapshotFormat.CSV));
+            }
+            return shards;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to list shards in " + directory, e);
+        }
+    }
+
+    private Path shardFile(TaskType type, int shard) {
+        String name = type.name().toLowerCase();
+        if (shardSize > 0) {
+            long first = (long) shard * shardSize;
+            name += "-" + first + "-" + (first + shardSize - 1);
+        }
+        return saveFile.resolve(name + (format == SnapshotFormat.BINARY ? ".bin" : ".csv"));
+    }
+
+    private int shardOf(int id) {
+        return shardSize == 0 ? 0 : Math.floorDiv(id, shardSize);
+    }
+
+    /**
+     * Перезаписывает файлы типа type, в диапазоны которых попадают ids.
+     */
+    private void writeShards(TaskType type, Collection<Integer> ids) {
+        TreeSet<Integer> shards = new TreeSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                shards.add(shardOf(id));
+            }
+        }
+        for (int shard : shards) {
+            writeShard(type, shard);
+        }
+    }
+
+    private void writeShard(TaskType type, int shard) {
+        List<Task> shardTasks = new ArrayList<>();
+        List<Epic> shardEpics = new ArrayList<>();
+        List<Subtask> shardSubtasks = new ArrayList<>();
+        switch (type) {
+            case TASK -> collectShard(tasks.values(), shard, shardTasks);
+            case EPIC -> collectShard(epics.values(), shard, shardEpics);
+            case SUBTASK -> collectShard(subtasks.values(), shard, shardSubtasks);
+        }
+        Path file = shardFile(type, shard);
+        try {
+            prepareDirectory();
+            if (shardTasks.isEmpty() && shardEpics.isEmpty() && shardSubtasks.isEmpty()) {
+                Files.deleteIfExists(file);
+            } else {
+                writeSnapshotAtomically(file, format, shardTasks, shardEpics, shardSubtasks, false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to save shard: " + file, e);
+        }
+    }
+
+    private <T extends Task> void collectShard(Collection<T> stored, int shard, List<T> target) {
+        for (T task : stored) {
+            if (shardOf(task.getId()) == shard) {
+                target.add(task);
+            }
+        }
+    }
+
+    private void deleteShards(TaskType type) {
+        try {
+            for (ShardFile shard : listShards(saveFile)) {
+                if (shard.type() == type) {
+                    Files.delete(shard.path());
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to delete shards in " + saveFile, e);
+        }
+    }
+
+    /**
+     * Новый менеджер, как и FileBackedTaskManager, при первой записи затирает прежние данные каталога.
+     */
+    private void prepareDirectory() throws IOException {
+        Files.createDirectories(saveFile);
+        if (!fresh) {
+            return;
+        }
+        for (TaskType type : TaskType.values()) {
+            deleteShards(type);
+        }
+        fresh = false;
+    }
+
+    @Override
+    protected void onSaved(TaskType type, List<Integer> ids) {
+        writeShards(type, ids);
+    }
+
+    @Override
+    protected void onDeleted(TaskType type, int id) {
+        writeShards(type, List.of(id));
+    }
+
+    @Override
+    protected void onDeletedAll(TaskType type) {
+        try {
+            prepareDirectory();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Failed to prepare directory: " + saveFile, e);
+        }
+        deleteShards(type);
+        if (type == TaskType.EPIC) {
+            deleteShards(TaskType.SUBTASK);
+        }
+    }
+
+    /**
+     * Вместе с эпиком удаляются его подзадачи: их диапазоны запоминаются до удаления.
+     */
+    @Override
+    public void deleteEpic(int id) {
+        Epic epic = epics.get(id);
+        List<Integer> subtaskIds = epic == null ? List.of() : epic.getSubtaskIds();
+        super.deleteEpic(id);
+        writeShards(TaskType.SUBTASK, subtaskIds);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.javacourse.schedule.manager;
+
+/**
+ * Формат файла со снимком задач.
+ */
+public enum SnapshotFormat {
+    /**
+     * Текстовый CSV, по строке на задачу.
+     */
+    CSV,
+    /**
+     * Компактный двоичный формат {@link ru.yandex.javacourse.schedule.util.TaskBinaryFormat}
+     * с контрольной суммой, загружается через отображение файла в память.
+     */
+    BINARY
+}
@@ -0,0 +1,208 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая запись снимков для режимов GROUP_COMMIT и ASYNC. Хранится только последний
+ * незаписанный снимок: промежуточные состояния всё равно перекрываются следующим,
+ * поэтому сколько бы изменений ни накопилось, на диск уходит одна запись.
+ */
+class SnapshotWriter implements AutoCloseable {
+    record State(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks, int[] history) {
+    }
+
+    private final Path file;
+    private final Path historyFile;
+    private final SnapshotFormat format;
+    private final DurabilityMode mode;
+    private final long windowNanos;
+    private final Thread thread;
+
+    private State pending;
+    private long pendingSinceNanos;
+    private boolean writing;
+    private long writingSinceNanos;
+    private long submitted;
+    private long durable;
+    private long writeCount;
+    private Throwable failure;
+    private boolean closed;
+
+    /**
+     * @param window для GROUP_COMMIT - окно сбора изменений, для ASYNC - допустимое отставание
+     */
+    SnapshotWriter(Path file, Path historyFile, SnapshotFormat format, DurabilityMode mode, Duration window) {
+        if (mode == DurabilityMode.SYNC) {
+            throw new IllegalArgumentException("SYNC mode does not need a background writer");
+        }
+        if (window == null || window.isNegative()) {
+            throw new IllegalArgumentException("Commit window must not be negative");
+        }
+        this.file = file;
+        this.historyFile = historyFile;
+        this.format = format;
+        this.mode = mode;
+        this.windowNanos = window.toNanos();
+        this.thread = new Thread(this::run, "snapshot-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Передаёт снимок на запись. В GROUP_COMMIT возвращается после записи снимка на диск,
+     * в ASYNC - сразу, если незаписанные изменения не старше допустимого отставания.
+     */
+    synchronized void save(State state) {
+        checkOpen();
+        if (pending == null) {
+            pendingSinceNanos = System.nanoTime();
+        }
+        pending = state;
+        long ticket = ++submitted;
+        notifyAll();
+
+        if (mode == DurabilityMode.GROUP_COMMIT) {
+            awaitDurable(ticket);
+        } else {
+            while (durable < ticket && lagNanos() > windowNanos && failure == null) {
+                waitFor(windowNanos);
+            }
+            checkFailure();
+        }
+    }
+
+    private void awaitDurable(long ticket) {
+        while (durable < ticket && failure == null) {
+            waitFor(0);
+        }
+        checkFailure();
+    }
+
+    private void waitFor(long nanos) {
+        try {
+            if (nanos > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            } else {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Interrupted while waiting for " + file + " to be saved", e);
+        }
+    }
+
+    private void checkOpen() {
+        checkFailure();
+        if (closed) {
+            throw new ManagerSaveException("Writer for " + file + " is closed");
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new ManagerSaveException("Failed to save data to file: " + file, failure);
+        }
+    }
+
+    synchronized long getPendingMutations() {
+        return submitted - durable;
+    }
+
+    /**
+     * Возраст самого старого изменения, которое ещё не записано.
+     */
+    synchronized Duration getLag() {
+        return Duration.ofNanos(lagNanos());
+    }
+
+    private long lagNanos() {
+        if (writing) {
+            return System.nanoTime() - writingSinceNanos;
+        }
+        return pending == null ? 0 : System.nanoTime() - pendingSinceNanos;
+    }
+
+    synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    private void run() {
+        while (true) {
+            State state;
+            long ticket;
+            synchronized (this) {
+                try {
+                    while (pending == null && !closed) {
+                        wait();
+                    }
+                    if (pending == null) {
+                        return;
+                    }
+                    if (mode == DurabilityMode.GROUP_COMMIT) {
+                        long remaining;
+                        while (!closed && (remaining = pendingSinceNanos + windowNanos - System.nanoTime()) > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                state = pending;
+                ticket = submitted;
+                pending = null;
+                writing = true;
+                writingSinceNanos = pendingSinceNanos;
+            }
+
+            Throwable error = null;
+            try {
+                FileBackedTaskManager.writeSnapshotAtomically(file, format, state.tasks(), state.epics(), state.subtasks(),
+                        mode == DurabilityMode.GROUP_COMMIT);
+                FileBackedTaskManager.writeHistory(historyFile, state.history());
+            } catch (Throwable e) {
+                error = e;
+            }
+
+            synchronized (this) {
+                writing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = ticket;
+                    writeCount++;
+                }
+                notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Дописывает накопленные изменения и останавливает фоновый поток.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Interrupted while closing writer for " + file, e);
+        }
+        synchronized (this) {
+            checkFailure();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package ru.yandex.javacourse.schedule.manager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import ru.yandex.javacourse.schedule.tasks.Epic;
 import ru.yandex.javacourse.schedule.tasks.Subtask;
 import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TimeSlot;
 
 public interface TaskManager {
 	List<Task> getTasks();
@@ -17,6 +21,24 @@ public interface TaskManager {
 
 	List<Task> getPrioritizedTasks();
 
+	List<Task> getTasks(Integer afterId, int limit);
+
+	List<Subtask> getSubtasks(Integer afterId, int limit);
+
+	List<Epic> getEpics(Integer afterId, int limit);
+
+	List<Task> getPrioritizedTasks(LocalDateTime afterStartTime, Integer afterId, int limit);
+
+	Stream<Task> streamTasks();
+
+	Stream<Subtask> streamSubtasks();
+
+	Stream<Epic> streamEpics();
+
+	Stream<Task> streamPrioritizedTasks();
+
+	List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit);
+
 	Task getTask(int id);
 
 	Subtask getSubtask(int id);
@@ -29,12 +51,18 @@ public interface TaskManager {
 
 	Integer createSubtask(Subtask subtask);
 
+	List<Integer> createTasks(List<Task> tasks);
+
+	List<Integer> createSubtasks(List<Subtask> subtasks);
+
 	void updateTask(Task task);
 
 	void updateEpic(Epic epic);
 
 	void updateSubtask(Subtask subtask);
 
+	void updateTasks(List<Task> tasks);
+
 	void deleteTask(int id);
 
 	void deleteEpic(int id);
@@ -48,4 +76,9 @@ public interface TaskManager {
 	void deleteEpics();
 
 	List<Task> getHistory();
+
+	/**
+	 * Не больше limit последних просмотров, от старых к новым.
+	 */
+	List<Task> getHistory(int limit);
 }
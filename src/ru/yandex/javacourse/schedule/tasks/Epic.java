@@ -6,48 +6,73 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
+
+import ru.yandex.javacourse.schedule.util.entities.IntLinkedHashSet;
 
 public class Epic extends Task {
-	private final ArrayList<Integer> subtaskIds;
+	private final IntLinkedHashSet subtaskIds;
 	private LocalDateTime endTime;
+	// Контрольная сумма расчётных параметров и подзадач, по ней снимок проверяется при загрузке
+	private transient long paramsChecksum;
 
 	//  Необходим для корректной работы Gson
 	// https://stackoverflow.com/questions/18645050/is-default-no-args-constructor-mandatory-for-gson
 	private Epic() {
 		super("", "", NEW, Duration.ZERO, null);
-		this.subtaskIds = new ArrayList<>();
+		this.subtaskIds = new IntLinkedHashSet();
 	}
 
 	public Epic(int id, String name, String description) {
 		super(id, name, description, NEW, Duration.ZERO, null);
-		subtaskIds = new ArrayList<>();
+		subtaskIds = new IntLinkedHashSet();
 	}
 
 	public Epic(String name, String description) {
 		super(name, description, NEW, Duration.ZERO, null);
-		this.subtaskIds = new ArrayList<>();
+		this.subtaskIds = new IntLinkedHashSet();
 	}
 
 	public Epic(Epic other) {
 		super(other);
-		this.subtaskIds = new ArrayList<>();
-		if (other.subtaskIds != null) {
-			this.subtaskIds.addAll(other.subtaskIds);
-		}
+		this.subtaskIds = other.subtaskIds != null
+				? new IntLinkedHashSet(other.subtaskIds)
+				: new IntLinkedHashSet();
 		this.endTime = other.endTime;
+		this.paramsChecksum = other.paramsChecksum;
 	}
 
 	public void addSubtaskId(int id) {
-		if (!subtaskIds.contains(id) && this.id != id) {
+		checkNotFrozen();
+		if (this.id == null || this.id != id) {
 			subtaskIds.add(id);
 		}
 	}
 
+	/**
+	 * Копия идентификаторов подзадач в порядке добавления.
+	 * Для обхода без упаковки используйте {@link #forEachSubtaskId(IntConsumer)}.
+	 */
 	public List<Integer> getSubtaskIds() {
-		return subtaskIds;
+		List<Integer> ids = new ArrayList<>(subtaskIds.size());
+		subtaskIds.forEach(ids::add);
+		return ids;
+	}
+
+	public void forEachSubtaskId(IntConsumer action) {
+		subtaskIds.forEach(action);
+	}
+
+	public boolean containsSubtaskId(int id) {
+		return subtaskIds.contains(id);
+	}
+
+	public int getSubtaskCount() {
+		return subtaskIds.size();
 	}
 
 	public void cleanSubtaskIds() {
+		checkNotFrozen();
 		subtaskIds.clear();
 		this.duration = Duration.ZERO;
 		this.startTime = null;
@@ -55,7 +80,8 @@ public class Epic extends Task {
 	}
 
 	public void removeSubtask(int id) {
-		subtaskIds.remove(Integer.valueOf(id));
+		checkNotFrozen();
+		subtaskIds.remove(id);
 	}
 
 	@Override
@@ -64,9 +90,24 @@ public class Epic extends Task {
 	}
 
 	public void setEndTime(LocalDateTime endTime) {
+		checkNotFrozen();
 		this.endTime = endTime;
 	}
 
+	public long getParamsChecksum() {
+		return paramsChecksum;
+	}
+
+	public void setParamsChecksum(long paramsChecksum) {
+		checkNotFrozen();
+		this.paramsChecksum = paramsChecksum;
+	}
+
+	@Override
+	public Epic copy() {
+		return new Epic(this);
+	}
+
 	@Override
 	public TaskType getType() {
 		return TaskType.EPIC;
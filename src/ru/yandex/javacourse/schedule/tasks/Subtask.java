@@ -34,6 +34,11 @@ public class Subtask extends Task {
         return epicId;
     }
 
+    @Override
+    public Subtask copy() {
+        return new Subtask(this);
+    }
+
     @Override
     public TaskType getType() {
         return TaskType.SUBTASK;
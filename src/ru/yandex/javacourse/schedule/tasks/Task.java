@@ -11,6 +11,8 @@ public class Task {
 	protected String description;
 	protected Duration duration;
 	protected LocalDateTime startTime;
+	// Замороженную задачу хранит менеджер: её можно отдавать наружу и в историю без копирования
+	private transient boolean frozen;
 
 	public Task(int id, String name, String description, TaskStatus status, Duration duration, LocalDateTime startTime) {
 		this.id = id;
@@ -43,6 +45,7 @@ public class Task {
 	}
 
 	public void setId(int id) {
+		checkNotFrozen();
 		this.id = id;
 	}
 
@@ -51,6 +54,7 @@ public class Task {
 	}
 
 	public void setName(String name) {
+		checkNotFrozen();
 		this.name = name;
 	}
 
@@ -59,6 +63,7 @@ public class Task {
 	}
 
 	public void setStatus(TaskStatus status) {
+		checkNotFrozen();
 		this.status = status;
 	}
 
@@ -67,6 +72,7 @@ public class Task {
 	}
 
 	public void setDescription(String description) {
+		checkNotFrozen();
 		this.description = description;
 	}
 
@@ -79,6 +85,7 @@ public class Task {
 	}
 
 	public void setDuration(Duration duration) {
+		checkNotFrozen();
 		this.duration = duration;
 	}
 
@@ -87,9 +94,34 @@ public class Task {
 	}
 
 	public void setStartTime(LocalDateTime startTime) {
+		checkNotFrozen();
 		this.startTime = startTime;
 	}
 
+	/**
+	 * Запрещает дальнейшие изменения через сеттеры. Изменяемую версию даёт конструктор копирования.
+	 */
+	public void freeze() {
+		frozen = true;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Изменяемая копия того же типа: подзадача остаётся подзадачей, эпик - эпиком.
+	 */
+	public Task copy() {
+		return new Task(this);
+	}
+
+	protected void checkNotFrozen() {
+		if (frozen) {
+			throw new UnsupportedOperationException(getType() + " " + id + " is read-only, change it through TaskManager");
+		}
+	}
+
 	public LocalDateTime getEndTime() {
 		if (startTime == null || duration == null) {
 			return null;
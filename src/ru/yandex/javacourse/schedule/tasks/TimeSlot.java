@@ -0,0 +1,48 @@
+package ru.yandex.javacourse.schedule.tasks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class TimeSlot {
+	private final LocalDateTime startTime;
+	private final LocalDateTime endTime;
+
+	public TimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	public LocalDateTime getStartTime() {
+		return startTime;
+	}
+
+	public LocalDateTime getEndTime() {
+		return endTime;
+	}
+
+	public Duration getDuration() {
+		return Duration.between(startTime, endTime);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		TimeSlot timeSlot = (TimeSlot) o;
+		return Objects.equals(startTime, timeSlot.startTime) && Objects.equals(endTime, timeSlot.endTime);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(startTime, endTime);
+	}
+
+	@Override
+	public String toString() {
+		return "TimeSlot{" +
+				"startTime=" + startTime +
+				", endTime=" + endTime +
+				'}';
+	}
+}
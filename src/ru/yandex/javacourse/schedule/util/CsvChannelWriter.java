@@ -0,0 +1,91 @@
+package ru.yandex.javacourse.schedule.util;
+
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Запись CSV-снимка в FileChannel без промежуточных String и byte[]: строка задачи собирается
+ * в StringBuilder, кодируется в UTF-8 прямо в direct-буфер, а буфер сбрасывается в канал
+ * по заполнении. Буферы свои у каждого потока и переиспользуются между сохранениями.
+ */
+public final class CsvChannelWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ThreadLocal<CsvChannelWriter> WRITERS = ThreadLocal.withInitial(CsvChannelWriter::new);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(128);
+    private FileChannel channel;
+
+    private CsvChannelWriter() {
+    }
+
+    public static void write(FileChannel channel, String header, List<Task> tasks, List<Epic> epics,
+                             List<Subtask> subtasks) throws IOException {
+        CsvChannelWriter writer = WRITERS.get();
+        writer.channel = channel;
+        writer.buffer.clear();
+        try {
+            writer.line.setLength(0);
+            writer.writeLine(writer.line.append(header));
+            for (List<? extends Task> list : List.of(tasks, epics, subtasks)) {
+                for (Task task : list) {
+                    writer.line.setLength(0);
+                    TaskCSVConverter.appendTo(writer.line, task);
+                    writer.writeLine(writer.line);
+                }
+            }
+            writer.drain();
+        } finally {
+            writer.channel = null;
+        }
+    }
+
+    private void writeLine(CharSequence text) throws IOException {
+        encode(text);
+        encode(LINE_SEPARATOR);
+    }
+
+    private void encode(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Одиночная половина суррогатной пары, как в String.getBytes
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
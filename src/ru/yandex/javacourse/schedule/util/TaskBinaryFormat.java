@@ -0,0 +1,329 @@
+package ru.yandex.javacourse.schedule.util;
+
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Двоичный снимок задач: читается через отображение файла в память без построчного разбора.
+ * <pre>
+ * magic "TMB1" | число строк | строки (длина + UTF-8) | число записей | записи | CRC32
+ * запись: длина | тип | id | имя | описание | статус | длительность в минутах | время начала | id эпика
+ * у эпика вместо id эпика: время окончания | контрольная сумма расчётных параметров (8 байт)
+ * </pre>
+ * Числа пишутся как varint, имя и описание - номера в таблице строк, время начала -
+ * минуты от эпохи (секунды и наносекунды, если есть, пишутся отдельным полем).
+ * Длина записи позволяет пропускать поля, добавленные в будущих версиях.
+ */
+public class TaskBinaryFormat {
+    private static final int MAGIC = 0x544D4231; // "TMB1"
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private TaskBinaryFormat() {
+    }
+
+    public static boolean isBinarySnapshot(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Дочитываем заголовок целиком
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void write(OutputStream out, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks)
+            throws IOException {
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (List<? extends Task> list : List.of(tasks, epics, subtasks)) {
+            for (Task task : list) {
+                indexString(task.getName(), stringIndex, strings);
+                indexString(task.getDescription(), stringIndex, strings);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        BufferedOutputStream buffered = new BufferedOutputStream(new CheckedOutputStream(out, crc), 1 << 16);
+        Encoder encoder = new Encoder();
+        encoder.writeInt(MAGIC);
+        encoder.writeVarLong(strings.size());
+        encoder.flushTo(buffered);
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoder.writeVarLong(bytes.length);
+            encoder.flushTo(buffered);
+            buffered.write(bytes);
+        }
+
+        encoder.writeVarLong(tasks.size() + epics.size() + subtasks.size());
+        encoder.flushTo(buffered);
+        Encoder record = new Encoder();
+        for (List<? extends Task> list : List.of(tasks, epics, subtasks)) {
+            for (Task task : list) {
+                encodeRecord(task, stringIndex, record);
+                encoder.writeVarLong(record.size);
+                encoder.flushTo(buffered);
+                record.flushTo(buffered);
+            }
+        }
+        buffered.flush();
+
+        int checksum = (int) crc.getValue();
+        out.write(new byte[]{(byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum});
+        out.flush();
+    }
+
+    private static void indexString(String string, Map<String, Integer> stringIndex, List<String> strings) {
+        if (string != null && !stringIndex.containsKey(string)) {
+            stringIndex.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void encodeRecord(Task task, Map<String, Integer> stringIndex, Encoder record) {
+        record.writeByte(task.getType().ordinal());
+        record.writeVarLong(task.getId());
+        // 0 - null, иначе номер строки + 1
+        record.writeVarLong(task.getName() == null ? 0 : stringIndex.get(task.getName()) + 1);
+        record.writeVarLong(task.getDescription() == null ? 0 : stringIndex.get(task.getDescription()) + 1);
+        record.writeByte(task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        record.writeVarLong(task.getDuration() == null ? 0 : task.getDuration().toMinutes());
+        writeTime(task.getStartTime(), record);
+        if (task instanceof Subtask subtask) {
+            record.writeVarLong(subtask.getEpicId());
+        } else if (task instanceof Epic epic) {
+            writeTime(epic.getEndTime(), record);
+            record.writeLong(epic.getParamsChecksum());
+        }
+    }
+
+    private static void writeTime(LocalDateTime time, Encoder record) {
+        if (time == null) {
+            record.writeVarLong(0);
+            return;
+        }
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        long epochMinute = Math.floorDiv(epochSecond, 60);
+        long nanosOfMinute = Math.floorMod(epochSecond, 60) * 1_000_000_000L + time.getNano();
+        boolean exactMinute = nanosOfMinute == 0;
+        record.writeVarLong(((zigZag(epochMinute) << 1) | (exactMinute ? 0 : 1)) + 1);
+        if (!exactMinute) {
+            record.writeVarLong(nanosOfMinute);
+        }
+    }
+
+    /**
+     * Читает снимок через отображение файла в память и передаёт задачи в порядке записи.
+     * Перед разбором сверяется контрольная сумма.
+     */
+    public static void read(Path file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + CHECKSUM_SIZE) {
+                throw new IOException("Binary snapshot is truncated: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int dataSize = (int) size - CHECKSUM_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, dataSize));
+            if ((int) crc.getValue() != buffer.getInt(dataSize)) {
+                throw new IOException("Binary snapshot checksum mismatch: " + file);
+            }
+
+            ByteBuffer data = buffer.slice(0, dataSize);
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a binary task snapshot: " + file);
+            }
+            String[] strings = new String[(int) readVarLong(data)];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int length = (int) readVarLong(data);
+                if (bytes.length < length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length * 2));
+                }
+                data.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            long count = readVarLong(data);
+            for (long i = 0; i < count; i++) {
+                int length = (int) readVarLong(data);
+                int end = data.position() + length;
+                consumer.accept(decodeRecord(data, strings, end));
+                data.position(end);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted binary snapshot: " + file, e);
+        }
+    }
+
+    private static Task decodeRecord(ByteBuffer data, String[] strings, int end) {
+        TaskType type = TYPES[data.get()];
+        int id = (int) readVarLong(data);
+        long nameIndex = readVarLong(data);
+        String name = nameIndex == 0 ? null : strings[(int) nameIndex - 1];
+        long descriptionIndex = readVarLong(data);
+        String description = descriptionIndex == 0 ? null : strings[(int) descriptionIndex - 1];
+        byte status = data.get();
+        TaskStatus taskStatus = status == 0 ? null : STATUSES[status - 1];
+        Duration duration = Duration.ofMinutes(readVarLong(data));
+        LocalDateTime startTime = readTime(data);
+
+        return switch (type) {
+            case EPIC -> decodeEpic(data, end, new Epic(id, name, description), taskStatus, duration, startTime);
+            case SUBTASK -> new Subtask(id, name, description, taskStatus, duration, startTime,
+                    (int) readVarLong(data));
+            case TASK -> new Task(id, name, description, taskStatus, duration, startTime);
+        };
+    }
+
+    private static LocalDateTime readTime(ByteBuffer data) {
+        long time = readVarLong(data);
+        if (time == 0) {
+            return null;
+        }
+        time--;
+        long epochSecond = unZigZag(time >>> 1) * 60;
+        long nanosOfMinute = (time & 1) == 0 ? 0 : readVarLong(data);
+        epochSecond += nanosOfMinute / 1_000_000_000L;
+        return LocalDateTime.ofEpochSecond(epochSecond, (int) (nanosOfMinute % 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * В снимках прежней версии у эпика нет времени окончания и контрольной суммы:
+     * тогда параметры эпика не заполняются и пересчитываются при загрузке.
+     */
+    private static Epic decodeEpic(ByteBuffer data, int end, Epic epic, TaskStatus status, Duration duration,
+                                   LocalDateTime startTime) {
+        if (data.position() >= end) {
+            return epic;
+        }
+        epic.setEndTime(readTime(data));
+        epic.setParamsChecksum(data.getLong());
+        epic.setStatus(status);
+        epic.setDuration(duration);
+        epic.setStartTime(startTime);
+        return epic;
+    }
+
+    /**
+     * Переводит CSV-снимок FileBackedTaskManager в двоичный формат.
+     */
+    public static void convertFromCsv(Path csvFile, Path binaryFile) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(csvFile)) {
+            String line;
+            br.readLine(); // Пропускаем заголовок
+            while ((line = TaskCSVConverter.readRecord(br)) != null) {
+                if (line.trim().isEmpty()) continue;
+                Task task = TaskCSVConverter.fromStringToTask(line);
+                switch (task.getType()) {
+                    case TASK -> tasks.add(task);
+                    case EPIC -> epics.add((Epic) task);
+                    case SUBTASK -> subtasks.add((Subtask) task);
+                }
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(binaryFile)) {
+            write(out, tasks, epics, subtasks);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer data) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = data.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    /**
+     * Небольшой буфер для кодирования одной записи, переиспользуется между записями.
+     */
+    private static final class Encoder {
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void flushTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+            size = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -2,57 +2,401 @@ package ru.yandex.javacourse.schedule.util;
 
 import ru.yandex.javacourse.schedule.tasks.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
+/**
+ * Строка CSV для задачи: id,type,name,status,description,duration,startTime,epic.
+ * Строка эпика дополнительно содержит endTime и контрольную сумму расчётных параметров;
+ * строки эпиков без этих полей, записанные прежними версиями, тоже читаются.
+ * Имя и описание экранируются по RFC 4180: поле с запятой, кавычкой или переводом строки
+ * берётся в кавычки, а кавычки внутри удваиваются. Разбор идёт за один проход по символам,
+ * числа и дата читаются прямо из строки, новые String создаются только для имени и описания.
+ */
 public class TaskCSVConverter {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
     public static String fromTaskToString(Task task) {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(64);
+        appendTask(sb, task, false);
+        return sb.toString();
+    }
+
+    public static String fromTaskToString(Subtask subtask) {
+        StringBuilder sb = new StringBuilder(64);
+        appendTask(sb, subtask, true);
+        return sb.toString();
+    }
 
-        long durationMinutes = Optional.ofNullable(task.getDuration())
-                .map(Duration::toMinutes)
-                .orElse(0L);
+    /**
+     * Дописывает строку задачи без перевода строки в переиспользуемый буфер.
+     * Для подзадачи в конце пишется id эпика.
+     */
+    public static void appendTo(StringBuilder sb, Task task) {
+        appendTask(sb, task, task instanceof Subtask);
+    }
 
-        String startTimeStr = Optional.ofNullable(task.getStartTime())
-                .map(LocalDateTime::toString)
-                .orElse("null");
+    private static void appendTask(StringBuilder sb, Task task, boolean withEpic) {
+        Integer id = task.getId();
+        // append(int) пишет цифры сразу в буфер, append(Integer) создал бы строку
+        if (id == null) {
+            sb.append("null");
+        } else {
+            sb.append(id.intValue());
+        }
+        sb.append(',').append(task.getType()).append(',');
+        appendText(sb, task.getName());
+        sb.append(',').append(task.getStatus()).append(',');
+        appendText(sb, task.getDescription());
+        sb.append(',').append(task.getDuration() == null ? 0 : task.getDuration().toMinutes()).append(',');
+        appendDateTime(sb, task.getStartTime());
+        sb.append(',');
+        if (withEpic) {
+            sb.append(((Subtask) task).getEpicId());
+        } else if (task instanceof Epic epic) {
+            sb.append(',');
+            appendDateTime(sb, epic.getEndTime());
+            sb.append(',').append(epic.getParamsChecksum());
+        }
+    }
 
-        sb.append(task.getId()).append(',')
-                .append(task.getType()).append(',')
-                .append(task.getName()).append(',')
-                .append(task.getStatus()).append(',')
-                .append(task.getDescription()).append(',')
-                .append(durationMinutes).append(',')
-                .append(startTimeStr).append(',');
+    private static void appendText(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        if (!needsQuotes(value)) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
 
-        return sb.toString();
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
     }
 
-    public static String fromTaskToString(Subtask subtask) {
-        String baseString = fromTaskToString((Task) subtask);
-        return baseString + subtask.getEpicId();
+    /**
+     * Пишет время в том же виде, что LocalDateTime.toString, но без промежуточной строки.
+     */
+    private static void appendDateTime(StringBuilder sb, LocalDateTime time) {
+        if (time == null) {
+            sb.append("null");
+            return;
+        }
+        if (time.getYear() < 0 || time.getYear() > 9999) {
+            sb.append(time);
+            return;
+        }
+        appendDigits(sb, time.getYear(), 4);
+        appendDigits(sb.append('-'), time.getMonthValue(), 2);
+        appendDigits(sb.append('-'), time.getDayOfMonth(), 2);
+        appendDigits(sb.append('T'), time.getHour(), 2);
+        appendDigits(sb.append(':'), time.getMinute(), 2);
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second == 0 && nano == 0) {
+            return;
+        }
+        appendDigits(sb.append(':'), second, 2);
+        if (nano == 0) {
+            return;
+        }
+        sb.append('.');
+        if (nano % 1_000_000 == 0) {
+            appendDigits(sb, nano / 1_000_000, 3);
+        } else if (nano % 1_000 == 0) {
+            appendDigits(sb, nano / 1_000, 6);
+        } else {
+            appendDigits(sb, nano, 9);
+        }
+    }
+
+    private static void appendDigits(StringBuilder sb, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    public static Task fromStringToTask(CharSequence str) {
+        return fromStringToTask(str, 0, str.length());
+    }
+
+    /**
+     * Разбирает запись, занимающую символы [from, to) текста, например часть прочитанного файла.
+     */
+    public static Task fromStringToTask(CharSequence text, int from, int to) {
+        try {
+            int end = fieldEnd(text, from, to);
+            int id = (int) parseLong(text, from, end);
+            int pos = end + 1;
+
+            end = fieldEnd(text, pos, to);
+            TaskType type = parseEnum(TYPES, text, pos, end, true);
+            pos = end + 1;
+
+            end = quotedFieldEnd(text, pos, to);
+            String name = parseText(text, pos, end);
+            pos = end + 1;
+
+            end = fieldEnd(text, pos, to);
+            TaskStatus status = parseEnum(STATUSES, text, pos, end, false);
+            pos = end + 1;
+
+            end = quotedFieldEnd(text, pos, to);
+            String description = parseText(text, pos, end);
+            pos = end + 1;
+
+            end = fieldEnd(text, pos, to);
+            Duration duration = Duration.ofMinutes(parseLong(text, pos, end));
+            pos = end + 1;
+
+            end = fieldEnd(text, pos, to);
+            LocalDateTime startTime = parseDateTime(text, pos, end);
+            pos = end + 1;
+
+            return switch (type) {
+                case EPIC -> parseEpic(text, pos, to, new Epic(id, name, description), status, duration, startTime);
+                case SUBTASK -> new Subtask(id, name, description, status, duration, startTime,
+                        (int) parseLong(text, pos, fieldEnd(text, pos, to)));
+                case TASK -> new Task(id, name, description, status, duration, startTime);
+            };
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed CSV record: " + text.subSequence(from, to), e);
+        }
+    }
+
+    /**
+     * Расчётные параметры эпика берутся из строки, только если в ней есть endTime и контрольная сумма.
+     */
+    private static Epic parseEpic(CharSequence text, int pos, int to, Epic epic, TaskStatus status,
+                                  Duration duration, LocalDateTime startTime) {
+        int end = fieldEnd(text, pos, to);
+        if (end == to) {
+            return epic;
+        }
+        pos = end + 1;
+        end = fieldEnd(text, pos, to);
+        LocalDateTime endTime = parseDateTime(text, pos, end);
+        pos = end + 1;
+        long checksum = parseLong(text, pos, fieldEnd(text, pos, to));
+
+        epic.setStatus(status);
+        epic.setDuration(duration);
+        epic.setStartTime(startTime);
+        epic.setEndTime(endTime);
+        epic.setParamsChecksum(checksum);
+        return epic;
+    }
+
+    private static int fieldEnd(CharSequence text, int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Missing CSV field: " + text.subSequence(0, to));
+        }
+        int i = from;
+        while (i < to && text.charAt(i) != ',') {
+            i++;
+        }
+        return i;
     }
 
-    public static Task fromStringToTask(String str) {
-        String[] params = str.split(",", -1);
+    /**
+     * Конец текстового поля: для поля в кавычках - позиция сразу за закрывающей кавычкой.
+     */
+    private static int quotedFieldEnd(CharSequence text, int from, int to) {
+        if (from >= to || text.charAt(from) != '"') {
+            return fieldEnd(text, from, to);
+        }
+        int i = from + 1;
+        while (true) {
+            if (i >= to) {
+                throw new IllegalArgumentException("Unterminated quoted CSV field: " + text.subSequence(from, to));
+            }
+            if (text.charAt(i) == '"') {
+                if (i + 1 < to && text.charAt(i + 1) == '"') {
+                    i += 2;
+                    continue;
+                }
+                i++;
+                if (i < to && text.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted CSV field: "
+                            + text.subSequence(from, to));
+                }
+                return i;
+            }
+            i++;
+        }
+    }
 
-        int id = Integer.parseInt(params[0]);
-        TaskType type = TaskType.valueOf(params[1].toUpperCase());
-        String name = params[2];
-        TaskStatus status = TaskStatus.valueOf(params[3]);
-        String description = params[4];
-        Duration duration = Duration.ofMinutes(Long.parseLong(params[5]));
-        LocalDateTime startTime = null;
+    private static String parseText(CharSequence text, int from, int end) {
+        if (end - from < 2 || text.charAt(from) != '"') {
+            return text.subSequence(from, end).toString();
+        }
+        StringBuilder sb = null;
+        int last = end - 1;
+        for (int i = from + 1; i < last; i++) {
+            if (text.charAt(i) == '"') {
+                if (sb == null) {
+                    sb = new StringBuilder(last - from).append(text, from + 1, i);
+                }
+                i++; // Вторая кавычка из пары
+            }
+            if (sb != null) {
+                sb.append(text.charAt(i));
+            }
+        }
+        return sb == null ? text.subSequence(from + 1, last).toString() : sb.toString();
+    }
 
-        if (!params[6].isEmpty() && !params[6].equals("null")) {
-            startTime = LocalDateTime.parse(params[6]);
+    private static long parseLong(CharSequence text, int from, int end) {
+        int i = from;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Expected a number: \"" + text.subSequence(from, end) + "\"");
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Expected a number: \"" + text.subSequence(from, end) + "\"");
+            }
+            result = Math.addExact(Math.multiplyExact(result, 10), negative ? -digit : digit);
         }
+        return result;
+    }
 
-        return switch (type) {
-            case EPIC -> new Epic(id, name, description);
-            case SUBTASK -> new Subtask(id, name, description, status, duration, startTime, Integer.parseInt(params[7]));
-            case TASK -> new Task(id, name, description, status, duration, startTime);
-        };
+    private static <E extends Enum<E>> E parseEnum(E[] values, CharSequence text, int from, int end,
+                                                   boolean ignoreCase) {
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == end - from && regionMatches(name, text, from, ignoreCase)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value: " + text.subSequence(from, end));
+    }
+
+    private static boolean regionMatches(String name, CharSequence text, int from, boolean ignoreCase) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = text.charAt(from + i);
+            if (c != name.charAt(i) && !(ignoreCase && Character.toUpperCase(c) == name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Быстрый разбор вида yyyy-MM-ddTHH:mm[:ss[.fraction]]; остальное отдаётся LocalDateTime.parse.
+     */
+    private static LocalDateTime parseDateTime(CharSequence text, int from, int end) {
+        int length = end - from;
+        if (length == 0 || (length == 4 && regionMatches("null", text, from, false))) {
+            return null;
+        }
+        if (length < 16 || text.charAt(from + 4) != '-' || text.charAt(from + 7) != '-'
+                || text.charAt(from + 10) != 'T' || text.charAt(from + 13) != ':'
+                || (length > 16 && (length < 19 || text.charAt(from + 16) != ':'))
+                || (length > 19 && (length == 20 || length > 29 || text.charAt(from + 19) != '.'))
+                || !digitsOnly(text, from, end)) {
+            return LocalDateTime.parse(text.subSequence(from, end));
+        }
+        int second = length > 16 ? (int) parseLong(text, from + 17, from + 19) : 0;
+        int nano = 0;
+        if (length > 20) {
+            nano = (int) parseLong(text, from + 20, end);
+            for (int digits = length - 20; digits < 9; digits++) {
+                nano *= 10;
+            }
+        }
+        return LocalDateTime.of((int) parseLong(text, from, from + 4), (int) parseLong(text, from + 5, from + 7),
+                (int) parseLong(text, from + 8, from + 10), (int) parseLong(text, from + 11, from + 13),
+                (int) parseLong(text, from + 14, from + 16), second, nano);
+    }
+
+    private static boolean digitsOnly(CharSequence text, int from, int end) {
+        for (int i = from; i < end; i++) {
+            int offset = i - from;
+            if (offset == 4 || offset == 7 || offset == 10 || offset == 13 || offset == 16 || offset == 19) {
+                continue;
+            }
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Конец записи, начинающейся с from: позиция перевода строки вне кавычек или to.
+     */
+    public static int recordEnd(CharSequence text, int from, int to) {
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Читает запись целиком: поле в кавычках может содержать переводы строк, в том числе \r и \r\n,
+     * и они возвращаются как есть. Запись завершает только \n вне кавычек, один \r перед ним
+     * отбрасывается - так же, как при параллельной загрузке по recordEnd.
+     * Возвращает null в конце файла; оборванная на середине поля запись возвращается как есть.
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder record = new StringBuilder(128);
+        boolean quoted = false;
+        for (; c != -1; c = reader.read()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                break;
+            }
+            record.append((char) c);
+        }
+        int length = record.length();
+        if (length > 0 && record.charAt(length - 1) == '\r') {
+            record.setLength(length - 1);
+        }
+        return record.toString();
     }
 }
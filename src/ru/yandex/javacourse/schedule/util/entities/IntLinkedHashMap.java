@@ -0,0 +1,162 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Отображение int -> V с сохранением порядка вставки.
+ * В отличие от HashMap&lt;Integer, V&gt; не создаёт Integer и Entry на каждую запись:
+ * ключ, значение и ссылки на соседей хранятся в параллельных массивах.
+ */
+public class IntLinkedHashMap<V> extends IntLinkedHashTable {
+    private Object[] values;
+
+    public IntLinkedHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLinkedHashMap(int capacity) {
+        super(capacity);
+        values = new Object[keys.length];
+    }
+
+    @Override
+    void resize(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    public boolean containsKey(int key) {
+        return findSlot(key) != NONE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot == NONE ? null : (V) values[slot];
+    }
+
+    /**
+     * Новый ключ добавляется в конец, значение существующего заменяется без смены позиции.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int slot = findSlot(key);
+        if (slot != NONE) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+        // insertSlot может расширить массивы, поэтому ячейку вычисляем заранее
+        int newSlot = insertSlot(key);
+        values[newSlot] = value;
+        return null;
+    }
+
+    /**
+     * Как put, но существующий ключ тоже переносится в конец - без удаления и повторной вставки.
+     */
+    @SuppressWarnings("unchecked")
+    public V putLast(int key, V value) {
+        int slot = findSlot(key);
+        if (slot != NONE) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            moveToEnd(slot);
+            return old;
+        }
+        int newSlot = insertSlot(key);
+        values[newSlot] = value;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = removeSlot(key);
+        if (slot == NONE) {
+            return null;
+        }
+        V old = (V) values[slot];
+        values[slot] = null;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            values[slot] = null;
+        }
+        super.clear();
+    }
+
+    /**
+     * Представление значений в порядке вставки, без копирования.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator(head);
+            }
+
+            @Override
+            public int size() {
+                return IntLinkedHashMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Значения, идущие в порядке вставки после ключа key. Если ключа нет, итератор пуст.
+     * Позиция ключа находится за O(1), поэтому продолжение обхода не зависит от размера.
+     */
+    public Iterator<V> valuesAfter(int key) {
+        int slot = findSlot(key);
+        return new ValueIterator(slot == NONE ? NONE : next[slot]);
+    }
+
+    /**
+     * Передаёт не больше count последних значений в порядке вставки: от хвоста отступает
+     * на count ячеек, поэтому время зависит от count, а не от размера.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachLast(int count, Consumer<? super V> action) {
+        if (count <= 0) {
+            return;
+        }
+        int slot = tail;
+        for (int i = 1; i < count && slot != NONE && prev[slot] != NONE; i++) {
+            slot = prev[slot];
+        }
+        for (; slot != NONE; slot = next[slot]) {
+            action.accept((V) values[slot]);
+        }
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private int slot;
+
+        ValueIterator(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot != NONE;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (slot == NONE) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[slot];
+            slot = IntLinkedHashMap.this.next[slot];
+            return value;
+        }
+    }
+}
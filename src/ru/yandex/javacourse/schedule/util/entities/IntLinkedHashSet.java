@@ -0,0 +1,71 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int с сохранением порядка вставки и без упаковки в Integer.
+ * add, remove и contains работают за O(1) и не создают объектов.
+ */
+public class IntLinkedHashSet extends IntLinkedHashTable {
+
+    public IntLinkedHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLinkedHashSet(int capacity) {
+        super(capacity);
+    }
+
+    public IntLinkedHashSet(IntLinkedHashSet other) {
+        super(other);
+    }
+
+    public boolean contains(int value) {
+        return findSlot(value) != NONE;
+    }
+
+    /**
+     * Добавляет значение в конец, если его ещё нет.
+     */
+    public boolean add(int value) {
+        if (findSlot(value) != NONE) {
+            return false;
+        }
+        insertSlot(value);
+        return true;
+    }
+
+    public boolean remove(int value) {
+        return removeSlot(value) != NONE;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            action.accept(keys[slot]);
+        }
+    }
+
+    /**
+     * Значения в порядке вставки.
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int i = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            result[i++] = keys[slot];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            if (slot != head) {
+                sb.append(", ");
+            }
+            sb.append(keys[slot]);
+        }
+        return sb.append(']').toString();
+    }
+}
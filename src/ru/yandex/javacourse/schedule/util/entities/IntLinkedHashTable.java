@@ -0,0 +1,231 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Общая часть int-коллекций с сохранением порядка вставки и без упаковки в Integer.
+ * Ключи лежат в параллельных массивах (ключ, ссылки prev/next на соседние ячейки),
+ * поиск ячейки по ключу идёт через хеш-таблицу с открытой адресацией.
+ * Освободившиеся ячейки переиспользуются через список свободных, поэтому
+ * вставка, удаление и поиск работают за O(1) и не создают объектов.
+ */
+abstract class IntLinkedHashTable {
+    static final int NONE = -1;
+    static final int DEFAULT_CAPACITY = 4;
+
+    int[] keys;
+    int[] prev;
+    int[] next;
+    // Номер ячейки + 1, 0 - свободное место в таблице
+    private int[] table;
+
+    int head = NONE;
+    int tail = NONE;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+
+    IntLinkedHashTable(int capacity) {
+        int slots = Math.max(capacity, 1);
+        keys = new int[slots];
+        prev = new int[slots];
+        next = new int[slots];
+        table = new int[tableSizeFor(slots)];
+    }
+
+    IntLinkedHashTable(IntLinkedHashTable other) {
+        keys = other.keys.clone();
+        prev = other.prev.clone();
+        next = other.next.clone();
+        table = other.table.clone();
+        head = other.head;
+        tail = other.tail;
+        freeHead = other.freeHead;
+        used = other.used;
+        size = other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Ключ, добавленный раньше всех остальных.
+     */
+    public int firstKey() {
+        if (head == NONE) {
+            throw new NoSuchElementException();
+        }
+        return keys[head];
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        head = NONE;
+        tail = NONE;
+        freeHead = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * Вызывается при увеличении числа ячеек, чтобы наследник расширил свои параллельные массивы.
+     */
+    void resize(int capacity) {
+    }
+
+    final int findSlot(int key) {
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] != 0) {
+            int slot = table[index] - 1;
+            if (keys[slot] == key) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    /**
+     * Добавляет ключ в конец. Вызывающий код гарантирует, что такого ключа ещё нет.
+     */
+    final int insertSlot(int key) {
+        int slot = allocateSlot();
+        keys[slot] = key;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+        insertIntoTable(key, slot);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Удаляет ключ и возвращает номер освобождённой ячейки или NONE, если ключа не было.
+     */
+    final int removeSlot(int key) {
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] != 0) {
+            int slot = table[index] - 1;
+            if (keys[slot] == key) {
+                deleteFromTable(index);
+                unlink(slot);
+                size--;
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        return NONE;
+    }
+
+    /**
+     * Переносит существующую ячейку в конец порядка. Ячейка и её место в хеш-таблице не меняются.
+     */
+    final void moveToEnd(int slot) {
+        if (slot == tail) {
+            return;
+        }
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        prev[after] = before;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        next[tail] = slot;
+        tail = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == keys.length) {
+            grow();
+        }
+        return used++;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private void insertIntoTable(int key, int slot) {
+        int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = slot + 1;
+    }
+
+    /**
+     * Удаление из линейного пробирования со сдвигом назад, чтобы не оставлять надгробий.
+     */
+    private void deleteFromTable(int index) {
+        int mask = table.length - 1;
+        int hole = index;
+        int current = (hole + 1) & mask;
+        while (table[current] != 0) {
+            int home = hash(keys[table[current] - 1]) & mask;
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                table[hole] = table[current];
+                hole = current;
+            }
+            current = (current + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        resize(capacity);
+        table = new int[tableSizeFor(capacity)];
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            insertIntoTable(keys[slot], slot);
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        // Заполненность таблицы не больше 50%
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Уже отсортированный список в виде SortedSet или SortedMap. Из такого источника
+ * TreeSet.addAll и TreeMap.putAll строят пустое дерево за O(n) вместо n вставок по O(log n).
+ * Представления нужны только для массовой загрузки: поддерживаются размер, обход,
+ * компаратор и крайние элементы. Список должен быть строго упорядочен этим компаратором.
+ */
+public final class SortedViews {
+
+    private SortedViews() {
+    }
+
+    public static <E> SortedSet<E> ofSet(List<E> sorted, Comparator<? super E> comparator) {
+        return new SetView<>(sorted, comparator);
+    }
+
+    /**
+     * @param comparator null - естественный порядок ключей, как у TreeMap без компаратора
+     */
+    public static <K, V> SortedMap<K, V> ofMap(List<Map.Entry<K, V>> sorted, Comparator<? super K> comparator) {
+        return new MapView<>(sorted, comparator);
+    }
+
+    private static final class SetView<E> extends AbstractSet<E> implements SortedSet<E> {
+        private final List<E> elements;
+        private final Comparator<? super E> comparator;
+
+        SetView(List<E> elements, Comparator<? super E> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return elements.iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public E first() {
+            return elements.get(0);
+        }
+
+        @Override
+        public E last() {
+            return elements.get(elements.size() - 1);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class MapView<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+        private final List<Map.Entry<K, V>> entries;
+        private final Comparator<? super K> comparator;
+
+        MapView(List<Map.Entry<K, V>> entries, Comparator<? super K> comparator) {
+            this.entries = entries;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public K firstKey() {
+            return entries.get(0).getKey();
+        }
+
+        @Override
+        public K lastKey() {
+            return entries.get(entries.size() - 1).getKey();
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
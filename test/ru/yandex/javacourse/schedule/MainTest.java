@@ -0,0 +1,13 @@
+package ru.yandex.javacourse.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+public class MainTest {
+
+    @Test
+    public void main_runDemoWithoutExceptions() {
+        assertDoesNotThrow(() -> Main.main(new String[0]), "demo should edit copies of read-only tasks");
+    }
+}
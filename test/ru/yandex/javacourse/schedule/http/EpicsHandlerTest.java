@@ -122,6 +122,24 @@ public class EpicsHandlerTest {
         assertEquals("Test Epic", fromJson.getName());
     }
 
+    @Test
+    public void getEpicById_serializeSubtaskIdsAsArray() throws IOException, InterruptedException {
+        int epicId = manager.createEpic(new Epic("Epic", "Epic desc"));
+        int sub1Id = manager.createSubtask(new Subtask("Sub1", "Sub1 desc", TaskStatus.NEW, null, null, epicId));
+        int sub2Id = manager.createSubtask(new Subtask("Sub2", "Sub2 desc", TaskStatus.NEW, null, null, epicId));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/epics/" + epicId);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"subtaskIds\":[" + sub1Id + "," + sub2Id + "]"));
+
+        Epic fromJson = gson.fromJson(response.body(), Epic.class);
+        assertEquals(List.of(sub1Id, sub2Id), fromJson.getSubtaskIds());
+    }
+
     @Test
     public void getEpicById_notFound() throws IOException, InterruptedException {
         HttpClient client = HttpClient.newHttpClient();
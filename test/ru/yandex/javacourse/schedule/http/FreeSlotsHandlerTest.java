@@ -0,0 +1,91 @@
+package ru.yandex.javacourse.schedule.http;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.manager.InMemoryTaskManager;
+import ru.yandex.javacourse.schedule.manager.TaskManager;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+import ru.yandex.javacourse.schedule.tasks.TimeSlot;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FreeSlotsHandlerTest {
+    TaskManager manager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(manager);
+    Gson gson = HttpTaskServer.getGson();
+
+    public FreeSlotsHandlerTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        manager.deleteTasks();
+        manager.deleteSubtasks();
+        manager.deleteEpics();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String query) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/free-slots?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void getFreeSlots() throws IOException, InterruptedException {
+        manager.createTask(new Task("Test1", "Testing1", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        manager.createTask(new Task("Test2", "Testing2", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 30)));
+
+        HttpResponse<String> response = get("from=" + encode("10:00 01.01.2025")
+                + "&to=" + encode("14:00 01.01.2025") + "&duration=30&limit=2");
+        assertEquals(200, response.statusCode());
+
+        Type type = new TypeToken<List<TimeSlot>>() {}.getType();
+        List<TimeSlot> fromJson = gson.fromJson(response.body(), type);
+        assertEquals(2, fromJson.size());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0), fromJson.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 30), fromJson.get(0).getEndTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 30), fromJson.get(1).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 0), fromJson.get(1).getEndTime());
+    }
+
+    @Test
+    public void getFreeSlots_missingParameters() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("from=" + encode("10:00 01.01.2025"));
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    public void getFreeSlots_invalidDate() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("from=tomorrow&to=" + encode("14:00 01.01.2025") + "&duration=30");
+        assertEquals(400, response.statusCode());
+    }
+}
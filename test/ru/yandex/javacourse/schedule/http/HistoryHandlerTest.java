@@ -66,4 +66,23 @@ public class HistoryHandlerTest {
         assertEquals(task1.getName(), fromJson.get(0).getName());
         assertEquals(task2.getName(), fromJson.get(1).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getHistory_withLimit() throws IOException, InterruptedException {
+        Task task1 = new Task("Test1", "Testing1", TaskStatus.NEW, Duration.ofMinutes(5), LocalDateTime.now());
+        Task task2 = new Task("Test2", "Testing2", TaskStatus.NEW, Duration.ofMinutes(5), LocalDateTime.now().plusHours(1));
+        manager.getTask(manager.createTask(task1));
+        manager.getTask(manager.createTask(task2));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/history?limit=1")).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<Task> fromJson = gson.fromJson(response.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(1, fromJson.size());
+        assertEquals(task2.getName(), fromJson.get(0).getName());
+
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/history?limit=0")).GET().build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
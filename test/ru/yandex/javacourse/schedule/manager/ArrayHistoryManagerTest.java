@@ -0,0 +1,14 @@
+package ru.yandex.javacourse.schedule.manager;
+
+public class ArrayHistoryManagerTest extends HistoryManagerTest {
+
+    @Override
+    protected void initHistoryManager() {
+        historyManager = new ArrayHistoryManager();
+    }
+
+    @Override
+    protected HistoryManager createHistoryManager(int capacity) {
+        return new ArrayHistoryManager(capacity);
+    }
+}
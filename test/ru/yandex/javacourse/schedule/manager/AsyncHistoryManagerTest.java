@@ -0,0 +1,131 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncHistoryManagerTest extends HistoryManagerTest {
+    private static final int THREADS = 8;
+
+    private final List<AsyncHistoryManager> created = new ArrayList<>();
+
+    @Override
+    protected void initHistoryManager() {
+        historyManager = track(new AsyncHistoryManager(1024));
+    }
+
+    @Override
+    protected HistoryManager createHistoryManager(int capacity) {
+        return track(new AsyncHistoryManager(1024, capacity));
+    }
+
+    private AsyncHistoryManager track(AsyncHistoryManager manager) {
+        created.add(manager);
+        return manager;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        created.forEach(AsyncHistoryManager::close);
+    }
+
+    private static Task frozenTask(int id) {
+        Task task = new Task(id, "Task " + id, "Desc", TaskStatus.NEW, null, null);
+        task.freeze();
+        return task;
+    }
+
+    @Test
+    public void constructor_roundQueueCapacityToPowerOfTwo() {
+        assertEquals(1, track(new AsyncHistoryManager(1)).getQueueCapacity());
+        assertEquals(1024, track(new AsyncHistoryManager(1000)).getQueueCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncHistoryManager(0));
+    }
+
+    @Test
+    public void addTask_applyInBackground() throws InterruptedException {
+        AsyncHistoryManager history = (AsyncHistoryManager) historyManager;
+        for (int i = 0; i < 100; i++) {
+            history.addTask(frozenTask(i));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (history.getQueueDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, history.getQueueDepth(), "consumer should drain the queue without reads");
+        assertEquals(0, history.getDroppedViews());
+        assertEquals(100, history.getHistory().size());
+    }
+
+    @Test
+    public void addTask_countDroppedViews_overload() throws Exception {
+        AsyncHistoryManager history = track(new AsyncHistoryManager(16));
+        final int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        history.addTask(frozenTask(first + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Все id разные, поэтому каждый просмотр либо попал в историю, либо учтён как отброшенный
+        int recorded = history.getHistory().size();
+        assertEquals(THREADS * perThread, recorded + history.getDroppedViews());
+        assertEquals(0, history.getQueueDepth());
+    }
+
+    @Test
+    public void close_recordViewsSynchronously() {
+        AsyncHistoryManager history = (AsyncHistoryManager) historyManager;
+        history.addTask(frozenTask(1));
+        history.close();
+        history.addTask(frozenTask(2));
+
+        assertEquals(0, history.getQueueDepth());
+        assertEquals(List.of(1, 2), history.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void taskManager_showCurrentVersionAndDeletions() {
+        TaskManager manager = Managers.getDefault(historyManager);
+        int first = manager.createTask(new Task("First", "Desc", TaskStatus.NEW, null, null));
+        int second = manager.createTask(new Task("Second", "Desc", TaskStatus.NEW, null, null));
+        manager.getTask(first);
+        manager.getTask(second);
+
+        manager.updateTask(new Task(first, "First", "Desc", TaskStatus.DONE, null, null));
+        manager.getTask(second);
+        manager.deleteTask(second);
+
+        List<Task> history = manager.getHistory();
+        assertEquals(List.of(first), history.stream().map(Task::getId).toList());
+        assertEquals(TaskStatus.DONE, history.get(0).getStatus());
+    }
+}
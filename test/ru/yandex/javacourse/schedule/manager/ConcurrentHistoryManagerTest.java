@@ -0,0 +1,104 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentHistoryManagerTest extends HistoryManagerTest {
+    private static final int THREADS = 8;
+
+    @Override
+    protected void initHistoryManager() {
+        historyManager = new ConcurrentHistoryManager();
+    }
+
+    @Override
+    protected HistoryManager createHistoryManager(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
+    private static Task frozenTask(int id) {
+        Task task = new Task(id, "Task " + id, "Desc", TaskStatus.NEW, null, null);
+        task.freeze();
+        return task;
+    }
+
+    private void addConcurrently(int perThread, int idsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * idsPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        historyManager.addTask(frozenTask(first + i % idsPerThread));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void addTask_noLostViews_concurrentViews() throws Exception {
+        final int perThread = 5_000;
+        addConcurrently(perThread, perThread);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(THREADS * perThread, history.size(), "every view should be recorded");
+        // Просмотры одного потока идут в истории в том же порядке, в каком он их делал
+        int[] last = new int[THREADS];
+        Arrays.fill(last, -1);
+        for (Task task : history) {
+            int thread = task.getId() / perThread;
+            assertTrue(task.getId() > last[thread], "views of one thread should keep their order");
+            last[thread] = task.getId();
+        }
+    }
+
+    @Test
+    public void addTask_keepOneEntryPerId_concurrentRepeatedViews() throws Exception {
+        addConcurrently(10_000, 100);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(THREADS * 100, history.size(), "repeated views should not duplicate entries");
+        assertEquals(THREADS * 100, history.stream().map(Task::getId).distinct().count());
+    }
+
+    @Test
+    public void addTask_respectCapacity_concurrentViews() throws Exception {
+        historyManager = createHistoryManager(50);
+        addConcurrently(2_000, 2_000);
+
+        assertEquals(50, historyManager.getHistory().size());
+        assertEquals(10, historyManager.getHistory(10).size());
+    }
+
+    @Test
+    public void remove_dropPendingView() {
+        historyManager.addTask(frozenTask(1));
+        historyManager.addTask(frozenTask(2));
+        historyManager.remove(1);
+
+        assertEquals(List.of(2), historyManager.getHistory().stream().map(Task::getId).toList());
+    }
+}
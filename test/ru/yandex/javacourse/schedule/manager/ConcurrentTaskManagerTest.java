@@ -0,0 +1,121 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest {
+    private static final int THREADS = 8;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected void initManager() {
+        manager = new ConcurrentTaskManager();
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return action.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void createTask_noLostUpdates_concurrentCreation() throws Exception {
+        final int perThread = 500;
+        AtomicInteger slot = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < perThread; i++) {
+                LocalDateTime start = BASE.plusMinutes(10L * slot.getAndIncrement());
+                manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ofMinutes(10), start));
+                manager.getPrioritizedTasks();
+            }
+            return null;
+        });
+
+        List<Task> tasks = manager.getTasks();
+        assertEquals(THREADS * perThread, tasks.size(), "all tasks should be stored");
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        assertEquals(THREADS * perThread, ids.size(), "ids should be unique");
+        assertEquals(THREADS * perThread, manager.getPrioritizedTasks().size(), "all tasks should be prioritized");
+    }
+
+    @Test
+    public void createTask_exactlyOneWinnerPerSlot_concurrentConflicts() throws Exception {
+        final int slots = 200;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < slots; i++) {
+                Task task = new Task("Task", "Desc", TaskStatus.NEW, Duration.ofMinutes(30), BASE.plusHours(i));
+                try {
+                    manager.createTask(task);
+                    created.incrementAndGet();
+                } catch (TimeConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(slots, created.get(), "each slot should be taken exactly once");
+        assertEquals((THREADS - 1) * slots, conflicts.get(), "all other attempts should conflict");
+        assertEquals(slots, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    public void updateSubtask_epicStaysConsistent_concurrentUpdates() throws Exception {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        List<Integer> subtaskIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            subtaskIds.add(manager.createSubtask(new Subtask("Subtask " + i, "Desc", TaskStatus.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(i), epicId)));
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            int subtaskId = subtaskIds.get(next.getAndIncrement());
+            for (int i = 0; i < 200; i++) {
+                Subtask subtask = new Subtask(manager.getSubtask(subtaskId));
+                subtask.setStatus(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE);
+                manager.updateSubtask(subtask);
+                manager.getEpic(epicId);
+            }
+            return null;
+        });
+
+        assertEquals(TaskStatus.DONE, manager.getEpic(epicId).getStatus(), "all subtasks finish as DONE");
+        assertEquals(THREADS, manager.getEpicSubtasks(epicId).size());
+        assertEquals(THREADS, manager.getPrioritizedTasks().size(), "no phantom entries should remain");
+        assertTrue(manager.getHistory().size() <= THREADS + 1, "history should not contain duplicates");
+    }
+}
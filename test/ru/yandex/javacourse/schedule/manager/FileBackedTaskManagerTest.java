@@ -6,11 +6,14 @@ import ru.yandex.javacourse.schedule.tasks.Epic;
 import ru.yandex.javacourse.schedule.tasks.Subtask;
 import ru.yandex.javacourse.schedule.tasks.Task;
 import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+import ru.yandex.javacourse.schedule.util.TaskBinaryFormat;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +34,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest {
     public void tearDown() throws IOException {
         if (tempFile != null) {
             Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(tempFile.resolveSibling(tempFile.getFileName() + ".history"));
         }
     }
 
@@ -100,10 +104,288 @@ public class FileBackedTaskManagerTest extends TaskManagerTest {
         try {
             String content = Files.readString(tempFile);
             assertTrue(content.contains("1,TASK,Task1,NEW,Desc1,10,null,\n"));
-            assertTrue(content.contains("2,EPIC,Epic1,DONE,DescEpic,10,null,\n"));
+            assertTrue(content.contains("2,EPIC,Epic1,DONE,DescEpic,10,null,,null,"
+                    + manager.getEpic(epicId).getParamsChecksum() + "\n"));
             assertTrue(content.contains("3,SUBTASK,Sub1,DONE,DescSub,10,null,2\n"));
         } catch (IOException e) {
             fail("Failed to read file");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void save_keepPreviousFileWhenWriteFails() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        String saved = Files.readString(tempFile);
+        Path tempSnapshot = tempFile.resolveSibling(tempFile.getFileName() + ".tmp");
+        Files.createDirectory(tempSnapshot);
+        try {
+            assertThrows(ManagerSaveException.class,
+                    () -> manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, Duration.ZERO, null)));
+
+            assertEquals(saved, Files.readString(tempFile));
+        } finally {
+            Files.delete(tempSnapshot);
+        }
+        manager.createTask(new Task("Task3", "Desc3", TaskStatus.NEW, Duration.ZERO, null));
+        assertFalse(Files.exists(tempSnapshot));
+        assertEquals(3, FileBackedTaskManager.loadFromFile(tempFile).getTasks().size());
+    }
+
+    @Test
+    void createTasks_saveWholeBatch() throws IOException {
+        manager.createTasks(List.of(
+                new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10), null),
+                new Task("Task2", "Desc2", TaskStatus.DONE, Duration.ofMinutes(20), null)));
+
+        String content = Files.readString(tempFile);
+        assertTrue(content.contains("1,TASK,Task1,NEW,Desc1,10,null,\n"));
+        assertTrue(content.contains("2,TASK,Task2,DONE,Desc2,20,null,\n"));
+    }
+
+    @Test
+    void binaryFormat_saveAndLoadKeepingFormat() throws IOException {
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, SnapshotFormat.BINARY);
+        binary.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10),
+                LocalDateTime.of(2025, 1, 1, 10, 0)));
+        int epicId = binary.createEpic(new Epic("Epic1", "DescEpic"));
+        binary.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.DONE, Duration.ofMinutes(10), null, epicId));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loaded.getPrioritizedTasks().size());
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epicId).getStatus());
+        loaded.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, null, null));
+        assertTrue(TaskBinaryFormat.isBinarySnapshot(tempFile), "loaded manager should keep binary format");
+        assertEquals(2, FileBackedTaskManager.loadFromFile(tempFile).getTasks().size());
+    }
+
+    @Test
+    void loadFromFile_restorePriorityOrderAndOverlapChecks() {
+        manager.createTask(new Task("Late", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 12, 0)));
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Early", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 9, 0), epicId));
+        manager.createTask(new Task("Middle", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 10, 0)));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(List.of("Early", "Middle", "Late"),
+                loaded.getPrioritizedTasks().stream().map(Task::getName).toList());
+        assertThrows(TimeConflictException.class, () -> loaded.createTask(new Task("Overlap", "Desc",
+                TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 15))));
+        loaded.createTask(new Task("Free", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 11, 0)));
+        assertEquals(4, loaded.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void loadFromFile_keepCarriageReturnsInFields_sequentialAndParallel() throws IOException {
+        String name = "line1\r\nline2\rx \"q\"";
+        for (int i = 0; i < 20_000; i++) {
+            manager.createTask(new Task(name, "Desc\r", TaskStatus.NEW, null, null));
+        }
+        assertTrue(Files.size(tempFile) >= FileBackedTaskManager.PARALLEL_LOAD_THRESHOLD);
+
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile, 1);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile, 4);
+
+        assertEquals(name, sequential.getTasks().get(0).getName());
+        assertEquals("Desc\r", sequential.getTasks().get(0).getDescription());
+        assertEquals(sequential.getTasks(), parallel.getTasks());
+        assertEquals(name, parallel.getTasks().get(19_999).getName());
+    }
+
+    @Test
+    void loadFromFile_parallelLoadMatchesSequential() throws IOException {
+        StringBuilder csv = new StringBuilder("id,type,name,status,description,duration,startTime,epic\n");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int id = 1; id <= 30_000; id++) {
+            if (id <= 100) {
+                csv.append(id).append(",EPIC,Epic").append(id).append(",NEW,Desc,0,null,\r\n");
+            } else if (id % 2 == 0) {
+                csv.append(id).append(",SUBTASK,Sub").append(id).append(id % 4 == 0 ? ",DONE" : ",NEW")
+                        .append(",Desc,30,").append(start.plusHours(id)).append(',').append(1 + id % 100).append('\n');
+            } else {
+                csv.append(id).append(",TASK,Task").append(id).append(",NEW,\"Desc,\n\"\"quoted\"\"\",30,")
+                        .append(start.plusHours(id)).append(",\n\n");
+            }
+        }
+        Files.writeString(tempFile, csv);
+        assertTrue(Files.size(tempFile) >= FileBackedTaskManager.PARALLEL_LOAD_THRESHOLD);
+
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile, 1);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFile(tempFile, 4);
+
+        assertEquals(100, parallel.getEpics().size());
+        assertEquals(sequential.getTasks(), parallel.getTasks());
+        assertEquals(sequential.getSubtasks(), parallel.getSubtasks());
+        assertEquals(sequential.getEpics(), parallel.getEpics());
+        assertEquals(sequential.getPrioritizedTasks(), parallel.getPrioritizedTasks());
+        assertEquals("Desc,\n\"quoted\"", parallel.getTask(101).getDescription());
+        for (Epic epic : sequential.getEpics()) {
+            Epic loaded = parallel.getEpic(epic.getId());
+            assertEquals(epic.getStatus(), loaded.getStatus());
+            assertEquals(epic.getStartTime(), loaded.getStartTime());
+            assertEquals(epic.getSubtaskIds(), loaded.getSubtaskIds());
+        }
+    }
+
+    @Test
+    void loadFromFile_throwException_nonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.loadFromFile(tempFile, 0));
+    }
+
+    @Test
+    void loadFromFile_keepSpecialCharactersInText() {
+        manager.createTask(new Task("Name, \"quoted\"", "line1\nline2, more", TaskStatus.NEW, Duration.ZERO, null));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("Name, \"quoted\"", loaded.getTasks().get(0).getName());
+        assertEquals("line1\nline2, more", loaded.getTasks().get(0).getDescription());
+    }
+
+    @Test
+    void groupCommit_saveBeforeReturn() throws IOException {
+        FileBackedTaskManager groupCommit = new FileBackedTaskManager(tempFile, DurabilityMode.GROUP_COMMIT,
+                Duration.ofMillis(5));
+
+        groupCommit.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10), null));
+
+        assertEquals(0, groupCommit.getPendingMutations());
+        assertTrue(Files.readString(tempFile).contains("1,TASK,Task1,NEW,Desc1,10,null,\n"));
+        groupCommit.close();
+    }
+
+    @Test
+    void async_writeAllChangesOnClose() throws IOException {
+        FileBackedTaskManager async = new FileBackedTaskManager(tempFile, DurabilityMode.ASYNC,
+                Duration.ofSeconds(10));
+        for (int i = 1; i <= 50; i++) {
+            async.createTask(new Task("Task" + i, "Desc", TaskStatus.NEW, null, null));
+        }
+
+        async.close();
+
+        assertEquals(0, async.getPendingMutations());
+        assertEquals(Duration.ZERO, async.getPersistenceLag());
+        assertEquals(50, FileBackedTaskManager.loadFromFile(tempFile).getTasks().size());
+        assertThrows(ManagerSaveException.class,
+                () -> async.createTask(new Task("Late", "Desc", TaskStatus.NEW, null, null)));
+    }
+
+    @Test
+    void sync_reportNoLag() {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, null, null));
+
+        FileBackedTaskManager sync = (FileBackedTaskManager) manager;
+        assertEquals(0, sync.getPendingMutations());
+        assertEquals(Duration.ZERO, sync.getPersistenceLag());
+    }
+
+    @Test
+    void loadFromFile_restoreHistoryInOrder() {
+        int taskId = manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.DONE, Duration.ZERO, null, epicId));
+        manager.getSubtask(subtaskId);
+        manager.getTask(taskId);
+        manager.getEpic(epicId);
+        ((FileBackedTaskManager) manager).close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(List.of(subtaskId, taskId, epicId),
+                loaded.getHistory().stream().map(Task::getId).toList());
+        assertSame(loaded.getTask(taskId), loaded.getHistory().get(2));
+    }
+
+    @Test
+    void loadFromFile_skipDeletedTasksInHistory() throws IOException {
+        int firstId = manager.createTask(new Task("First", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        int secondId = manager.createTask(new Task("Second", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        manager.getTask(firstId);
+        manager.getTask(secondId);
+        ((FileBackedTaskManager) manager).close();
+        Files.writeString(tempFile.resolveSibling(tempFile.getFileName() + ".history"), firstId + ",42," + secondId);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(List.of(firstId, secondId), loaded.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void loadFromFile_withoutHistoryFile() {
+        manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loaded.getTasks().size());
+        assertTrue(loaded.getHistory().isEmpty());
+    }
+
+    @Test
+    void loadFromFile_keepEpicParamsWithValidChecksum() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Sub1", "Desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 10, 0), epicId));
+        manager.createSubtask(new Subtask("Sub2", "Desc", TaskStatus.NEW, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 1, 2, 10, 0), epicId));
+        Epic saved = manager.getEpic(epicId);
+
+        Epic loaded = FileBackedTaskManager.loadFromFile(tempFile).getEpic(epicId);
+
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.getStatus());
+        assertEquals(Duration.ofMinutes(45), loaded.getDuration());
+        assertEquals(saved.getStartTime(), loaded.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 15), loaded.getEndTime());
+        assertEquals(saved.getParamsChecksum(), loaded.getParamsChecksum());
+    }
+
+    @Test
+    void loadFromFile_recalculateEpicWithStaleChecksum() throws IOException {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                null, epicId));
+        String content = Files.readString(tempFile);
+        // Подзадача изменена в обход менеджера, строка эпика осталась прежней
+        Files.writeString(tempFile, content.replace(subtaskId + ",SUBTASK,Sub,NEW", subtaskId + ",SUBTASK,Sub,DONE"));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(TaskStatus.DONE, loaded.getEpic(epicId).getStatus());
+        // Пересчитанный эпик снова сохраняется с верной контрольной суммой
+        loaded.updateEpic(new Epic(epicId, "Renamed", "Desc"));
+        assertEquals(TaskStatus.DONE, FileBackedTaskManager.loadFromFile(tempFile).getEpic(epicId).getStatus());
+    }
+
+    @Test
+    void loadFromFile_recalculateEditedEpicParams() throws IOException {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.DONE, Duration.ofMinutes(30), null, epicId));
+        String content = Files.readString(tempFile);
+        Files.writeString(tempFile, content.replace(epicId + ",EPIC,Epic,DONE", epicId + ",EPIC,Epic,NEW"));
+
+        assertEquals(TaskStatus.DONE, FileBackedTaskManager.loadFromFile(tempFile).getEpic(epicId).getStatus());
+    }
+
+    @Test
+    void updateSubtask_buildEpicAggregateAfterLoad() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        int firstId = manager.createSubtask(new Subtask("Sub1", "Desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 10, 0), epicId));
+        manager.createSubtask(new Subtask("Sub2", "Desc", TaskStatus.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 1, 2, 10, 0), epicId));
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        loaded.updateSubtask(new Subtask(firstId, "Sub1", "Desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 1, 1, 10, 0), epicId));
+
+        Epic epic = loaded.getEpic(epicId);
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(Duration.ofMinutes(75), epic.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 10, 15), epic.getEndTime());
+    }
+}
@@ -2,6 +2,8 @@ package ru.yandex.javacourse.schedule.manager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
 import ru.yandex.javacourse.schedule.tasks.Task;
 import ru.yandex.javacourse.schedule.tasks.TaskStatus;
 
@@ -14,6 +16,8 @@ public abstract class HistoryManagerTest {
 
     protected abstract void initHistoryManager();
 
+    protected abstract HistoryManager createHistoryManager(int capacity);
+
     @BeforeEach
     public void setUp() {
         initHistoryManager();
@@ -50,6 +54,15 @@ public abstract class HistoryManagerTest {
         assertEquals(TaskStatus.NEW, historyManager.getHistory().get(0).getStatus(), "historic task should not be changed");
     }
 
+    @Test
+    public void addTask_keepFrozenTaskWithoutCopy() {
+        Task task = new Task(1, "Test 1", "Testing task 1", TaskStatus.NEW, null, null);
+        task.freeze();
+        historyManager.addTask(task);
+
+        assertSame(task, historyManager.getHistory().get(0), "frozen task should be stored as is");
+    }
+
     @Test
     public void addTask_removeOldAndAddNew_whenSameIdAddedAgain() {
         Task task1 = new Task(1, "Task 1", "Desc", TaskStatus.NEW, null, null);
@@ -181,4 +194,69 @@ public abstract class HistoryManagerTest {
 
         assertEquals(0, historyManager.getHistory().size());
     }
+
+    @Test
+    public void getHistory_returnNewestTasksUpToLimit() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.addTask(new Task(id, "Task " + id, "Desc", TaskStatus.NEW, null, null));
+        }
+
+        assertEquals(List.of(4, 5), historyManager.getHistory(2).stream().map(Task::getId).toList());
+        assertEquals(5, historyManager.getHistory(10).size());
+        assertTrue(historyManager.getHistory(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1));
+    }
+
+    @Test
+    public void addTask_evictOldest_whenCapacityExceeded() {
+        historyManager = createHistoryManager(3);
+        for (int id = 1; id <= 5; id++) {
+            historyManager.addTask(new Task(id, "Task " + id, "Desc", TaskStatus.NEW, null, null));
+        }
+
+        assertEquals(List.of(3, 4, 5), historyManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void addTask_keepSize_whenViewedAgain() {
+        historyManager = createHistoryManager(2);
+        Task task1 = new Task(1, "Task 1", "Desc", TaskStatus.NEW, null, null);
+        Task task2 = new Task(2, "Task 2", "Desc", TaskStatus.NEW, null, null);
+        historyManager.addTask(task1);
+        historyManager.addTask(task2);
+        historyManager.addTask(task1);
+
+        assertEquals(List.of(2, 1), historyManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void constructor_throwException_nonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> createHistoryManager(0));
+    }
+
+    @Test
+    public void addTask_keepSubtaskAndEpicTypes() {
+        Subtask subtask = new Subtask(1, "Sub", "Desc", TaskStatus.NEW, null, null, 2);
+        Epic epic = new Epic(2, "Epic", "Desc");
+        epic.addSubtaskId(1);
+        historyManager.addTask(subtask);
+        historyManager.addTask(epic);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, ((Subtask) history.get(0)).getEpicId());
+        assertEquals(List.of(1), ((Epic) history.get(1)).getSubtaskIds());
+    }
+
+    @Test
+    public void replace_keepPosition() {
+        historyManager.addTask(new Task(1, "Task 1", "Desc", TaskStatus.NEW, null, null));
+        historyManager.addTask(new Task(2, "Task 2", "Desc", TaskStatus.NEW, null, null));
+
+        historyManager.replace(new Task(1, "Task 1", "Desc", TaskStatus.DONE, null, null));
+        historyManager.replace(new Task(3, "Task 3", "Desc", TaskStatus.DONE, null, null));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(List.of(1, 2), history.stream().map(Task::getId).toList());
+        assertEquals(TaskStatus.DONE, history.get(0).getStatus());
+    }
 }
@@ -6,4 +6,9 @@ public class InMemoryHistoryManagerTest extends HistoryManagerTest {
     protected void initHistoryManager() {
         historyManager = new InMemoryHistoryManager();
     }
+
+    @Override
+    protected HistoryManager createHistoryManager(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
 }
@@ -0,0 +1,155 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Нужен драйвер H2 в classpath; без него тесты пропускаются.
+ */
+public class JdbcTaskManagerTest extends TaskManagerTest {
+    private Path tempDir;
+    private String url;
+
+    @Override
+    protected void initManager() {
+        try {
+            tempDir = Files.createTempDirectory("jdbc");
+            url = "jdbc:h2:file:" + tempDir.resolve("tasks").toAbsolutePath();
+            assumeTrue(isDriverAvailable(url), "H2 driver is not on the classpath");
+            manager = new JdbcTaskManager(url);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temp dir for test", e);
+        }
+    }
+
+    private static boolean isDriverAvailable(String url) {
+        try {
+            DriverManager.getDriver(url);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (manager != null) {
+            ((JdbcTaskManager) manager).close();
+        }
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private JdbcTaskManager reopen() {
+        ((JdbcTaskManager) manager).close();
+        manager = new JdbcTaskManager(url);
+        return (JdbcTaskManager) manager;
+    }
+
+    private List<String> queryRows(String sql) throws SQLException {
+        ((JdbcTaskManager) manager).close();
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            while (result.next()) {
+                rows.add(result.getString(1));
+            }
+        }
+        manager = new JdbcTaskManager(url);
+        return rows;
+    }
+
+    @Test
+    void reopen_restoreTasksAndEpicAggregates() {
+        int taskId = manager.createTask(new Task("Task1", "Desc, with comma", TaskStatus.NEW, Duration.ofMinutes(10),
+                LocalDateTime.of(2025, 1, 1, 9, 0, 30)));
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 10, 0), epicId));
+        manager.createSubtask(new Subtask("Sub2", "DescSub", TaskStatus.NEW, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 1, 1, 11, 0), epicId));
+
+        JdbcTaskManager reopened = reopen();
+
+        assertEquals("Desc, with comma", reopened.getTask(taskId).getDescription());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 9, 0, 30), reopened.getTask(taskId).getStartTime());
+        Epic epic = reopened.getEpic(epicId);
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(Duration.ofMinutes(45), epic.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 15), epic.getEndTime());
+        assertEquals(3, reopened.getPrioritizedTasks().size());
+        assertEquals(epicId + 3, reopened.createTask(new Task("Next", "Desc", TaskStatus.NEW, Duration.ZERO, null)));
+    }
+
+    @Test
+    void createTasks_writeWholeBatch() throws SQLException {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new Task("Task" + i, "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        }
+
+        manager.createTasks(batch);
+
+        assertEquals(List.of("50"), queryRows("SELECT COUNT(*) FROM tasks WHERE type = 'TASK'"));
+    }
+
+    @Test
+    void updateTask_replaceOnlyItsRow() throws SQLException {
+        int taskId = manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, Duration.ZERO, null));
+
+        manager.updateTask(new Task(taskId, "Task1", "Changed", TaskStatus.DONE, Duration.ofMinutes(5), null));
+
+        assertEquals(List.of("Changed", "Desc2"), queryRows("SELECT description FROM tasks ORDER BY id"));
+        assertEquals(TaskStatus.DONE, manager.getTask(taskId).getStatus());
+    }
+
+    @Test
+    void deleteEpic_deleteSubtaskRows() throws SQLException {
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.NEW, Duration.ZERO, null, epicId));
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+
+        manager.deleteEpic(epicId);
+
+        assertEquals(List.of("TASK"), queryRows("SELECT type FROM tasks"));
+    }
+
+    @Test
+    void deleteEpics_deleteAllEpicAndSubtaskRows() throws SQLException {
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.NEW, Duration.ZERO, null, epicId));
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+
+        manager.deleteEpics();
+
+        assertEquals(List.of("TASK"), queryRows("SELECT type FROM tasks"));
+        assertTrue(manager.getEpics().isEmpty());
+    }
+}
@@ -0,0 +1,198 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalingTaskManagerTest extends TaskManagerTest {
+    private Path tempDir;
+    private Path saveFile;
+    private Path journalFile;
+
+    @Override
+    protected void initManager() {
+        try {
+            tempDir = Files.createTempDirectory("journal");
+            saveFile = tempDir.resolve("tasks.csv");
+            journalFile = tempDir.resolve("tasks.csv.journal");
+            manager = new JournalingTaskManager(saveFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temp dir for test", e);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        ((JournalingTaskManager) manager).close();
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private JournalingTaskManager reload() {
+        ((JournalingTaskManager) manager).close();
+        return JournalingTaskManager.loadFromFile(saveFile);
+    }
+
+    @Test
+    void createTask_appendRecordWithoutRewritingSnapshot() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10), null));
+        String snapshot = Files.readString(saveFile);
+
+        manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, Duration.ofMinutes(20), null));
+
+        assertEquals(snapshot, Files.readString(saveFile), "snapshot should not be rewritten on each change");
+        assertEquals("""
+                U,1,TASK,Task1,NEW,Desc1,10,null,
+                U,2,TASK,Task2,NEW,Desc2,20,null,
+                """, Files.readString(journalFile));
+    }
+
+    @Test
+    void loadFromFile_replayJournal() {
+        int taskId = manager.createTask(new Task("Task", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        Subtask subtask = new Subtask("Sub", "Desc", TaskStatus.NEW, null, null, epicId);
+        manager.createSubtask(subtask);
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        manager.updateEpic(new Epic(epicId, "Renamed", "Desc"));
+
+        JournalingTaskManager loaded = reload();
+
+        assertEquals("Task", loaded.getTask(taskId).getName());
+        assertEquals(taskId, loaded.getPrioritizedTasks().get(0).getId());
+        Epic epic = loaded.getEpic(epicId);
+        assertEquals("Renamed", epic.getName());
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(1, epic.getSubtaskCount());
+        loaded.close();
+    }
+
+    @Test
+    void loadFromFile_replayCarriageReturnsInFields() {
+        int taskId = manager.createTask(new Task("line1\r\nline2\rx \"q\"", "Desc\r", TaskStatus.NEW, null, null));
+
+        JournalingTaskManager loaded = reload();
+
+        assertEquals("line1\r\nline2\rx \"q\"", loaded.getTask(taskId).getName());
+        assertEquals("Desc\r", loaded.getTask(taskId).getDescription());
+    }
+
+    @Test
+    void loadFromFile_replayDeletes() {
+        manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, null, null));
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.NEW, null, null, epicId));
+        int keptEpicId = manager.createEpic(new Epic("Kept", "Desc"));
+        manager.deleteEpic(epicId);
+        manager.deleteTasks();
+
+        JournalingTaskManager loaded = reload();
+
+        assertTrue(loaded.getTasks().isEmpty());
+        assertTrue(loaded.getSubtasks().isEmpty(), "subtasks of deleted epic should be removed");
+        assertEquals(keptEpicId, loaded.getEpics().get(0).getId());
+        assertEquals(5, loaded.createTask(new Task("New", "Desc", TaskStatus.NEW, null, null)),
+                "ids of deleted tasks should not be reused");
+        loaded.close();
+    }
+
+    @Test
+    void compact_moveJournalIntoSnapshot() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10), null));
+        manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, Duration.ofMinutes(20), null));
+        manager.deleteTask(1);
+
+        ((JournalingTaskManager) manager).compact();
+
+        assertFalse(Files.exists(journalFile));
+        assertEquals("""
+                id,type,name,status,description,duration,startTime,epic,endTime,checksum
+                2,TASK,Task2,NEW,Desc2,20,null,
+                """, Files.readString(saveFile));
+        assertEquals(1, reload().getTasks().size());
+    }
+
+    @Test
+    void append_compactInBackground_whenThresholdReached() throws IOException {
+        ((JournalingTaskManager) manager).close();
+        JournalingTaskManager journaling = new JournalingTaskManager(saveFile, 3);
+        manager = journaling;
+        for (int i = 1; i <= 4; i++) {
+            journaling.createTask(new Task("Task" + i, "Desc", TaskStatus.NEW, null, null));
+        }
+        journaling.close();
+
+        assertEquals(1, journaling.getJournalRecords());
+        assertTrue(Files.readString(saveFile).contains("3,TASK,Task3"));
+        assertEquals(4, JournalingTaskManager.loadFromFile(saveFile).getTasks().size());
+    }
+
+    @Test
+    void loadFromFile_skipTornLastRecord() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, null, null));
+        ((JournalingTaskManager) manager).close();
+        Files.writeString(journalFile, "U,2,TASK,Tas", StandardOpenOption.APPEND);
+
+        JournalingTaskManager loaded = JournalingTaskManager.loadFromFile(saveFile);
+
+        assertEquals(1, loaded.getTasks().size());
+        loaded.close();
+    }
+
+    @Test
+    void loadFromFile_throwException_corruptedRecordInTheMiddle() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, null, null));
+        ((JournalingTaskManager) manager).close();
+        Files.writeString(journalFile, "X,broken\nD,TASK,1\n", StandardOpenOption.APPEND);
+
+        assertThrows(ManagerSaveException.class, () -> JournalingTaskManager.loadFromFile(saveFile));
+    }
+
+    @Test
+    void loadFromFile_finishInterruptedCompaction() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, null, null));
+        manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, null, null));
+        ((JournalingTaskManager) manager).close();
+        Files.move(journalFile, tempDir.resolve("tasks.csv.journal.old"));
+
+        JournalingTaskManager loaded = JournalingTaskManager.loadFromFile(saveFile);
+
+        assertEquals(2, loaded.getTasks().size());
+        assertFalse(Files.exists(tempDir.resolve("tasks.csv.journal.old")));
+        assertTrue(Files.readString(saveFile).contains("2,TASK,Task2"));
+        loaded.close();
+    }
+
+    @Test
+    void loadFromFile_restoreHistory() {
+        int taskId = manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.getTask(taskId);
+        manager.getEpic(epicId);
+
+        JournalingTaskManager loaded = reload();
+
+        assertEquals(List.of(taskId, epicId), loaded.getHistory().stream().map(Task::getId).toList());
+        loaded.close();
+    }
+}
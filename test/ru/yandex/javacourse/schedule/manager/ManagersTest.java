@@ -1,7 +1,14 @@
 package ru.yandex.javacourse.schedule.manager;
 
 import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class ManagersTest {
@@ -11,8 +18,46 @@ public class ManagersTest {
         assertNotNull(Managers.getDefault(), "default manager should not be null");
     }
 
+    @Test
+    public void getConcurrent_NotNull() {
+        assertNotNull(Managers.getConcurrent(), "concurrent manager should not be null");
+    }
+
+    @Test
+    public void getJournaling_NotNull() {
+        assertNotNull(Managers.getJournaling(Path.of("tasks.csv")), "journaling manager should not be null");
+    }
+
+    @Test
+    public void getSharded_NotNull() {
+        assertNotNull(Managers.getSharded(Path.of("tasks")), "sharded manager should not be null");
+    }
+
     @Test
     public void getDefaultHistory_NotNull() {
         assertNotNull(Managers.getDefaultHistory(), "default history managers should not be null");
     }
+
+    @Test
+    public void getDefault_withAsyncHistory() {
+        try (AsyncHistoryManager history = Managers.getAsyncHistory(64)) {
+            TaskManager manager = Managers.getDefault(history);
+            int id = manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+            manager.getTask(id);
+
+            assertEquals(List.of(id), manager.getHistory().stream().map(Task::getId).toList());
+            assertEquals(0, history.getDroppedViews());
+        }
+    }
+
+    @Test
+    public void getDefault_limitHistory() {
+        TaskManager manager = Managers.getDefault(1);
+        int first = manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        int second = manager.createTask(new Task("Task2", "Desc2", TaskStatus.NEW, Duration.ZERO, null));
+        manager.getTask(first);
+        manager.getTask(second);
+
+        assertEquals(List.of(second), manager.getHistory().stream().map(Task::getId).toList());
+    }
 }
@@ -0,0 +1,175 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Epic;
+import ru.yandex.javacourse.schedule.tasks.Subtask;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedTaskManagerTest extends TaskManagerTest {
+    private Path tempDir;
+
+    @Override
+    protected void initManager() {
+        try {
+            tempDir = Files.createTempDirectory("shards");
+            manager = new ShardedTaskManager(tempDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create temp dir for test", e);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private List<String> shardNames() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void updateTask_rewriteOnlyTaskFile() throws IOException {
+        Task task = new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(10), null);
+        int taskId = manager.createTask(task);
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.NEW, Duration.ofMinutes(10), null, epicId));
+        Path subtaskFile = tempDir.resolve("subtask.csv");
+        Files.writeString(subtaskFile, "untouched");
+
+        manager.updateTask(new Task(taskId, "Task1", "Changed", TaskStatus.DONE, Duration.ofMinutes(10), null));
+
+        assertEquals("untouched", Files.readString(subtaskFile));
+        assertEquals(List.of("epic.csv", "subtask.csv", "task.csv"), shardNames());
+        assertTrue(Files.readString(tempDir.resolve("task.csv")).contains("Changed"));
+    }
+
+    @Test
+    void createTask_rewriteOnlyTouchedIdRange() throws IOException {
+        ShardedTaskManager sharded = new ShardedTaskManager(tempDir, SnapshotFormat.CSV, 2);
+        for (int i = 1; i <= 5; i++) {
+            sharded.createTask(new Task("Task" + i, "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        }
+        assertEquals(List.of("task-0-1.csv", "task-2-3.csv", "task-4-5.csv"), shardNames());
+        Files.writeString(tempDir.resolve("task-0-1.csv"), "untouched");
+
+        sharded.updateTask(new Task(3, "Task3", "Changed", TaskStatus.NEW, Duration.ZERO, null));
+        sharded.deleteTask(4);
+        sharded.deleteTask(5);
+
+        assertEquals("untouched", Files.readString(tempDir.resolve("task-0-1.csv")));
+        assertEquals(List.of("task-0-1.csv", "task-2-3.csv"), shardNames());
+    }
+
+    @Test
+    void loadFromFile_rebuildEpicsFromSubtaskShards() {
+        ShardedTaskManager sharded = new ShardedTaskManager(tempDir, SnapshotFormat.BINARY, 3);
+        int epicId = sharded.createEpic(new Epic("Epic1", "DescEpic"));
+        for (int i = 0; i < 5; i++) {
+            sharded.createSubtask(new Subtask("Sub" + i, "Desc", i == 0 ? TaskStatus.DONE : TaskStatus.NEW,
+                    Duration.ofMinutes(10), LocalDateTime.of(2025, 1, 1, 10 + i, 0), epicId));
+        }
+
+        ShardedTaskManager loaded = ShardedTaskManager.loadFromFile(tempDir);
+
+        assertEquals(3, loaded.getShardSize());
+        Epic epic = loaded.getEpic(epicId);
+        assertEquals(5, epic.getSubtaskIds().size());
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(Duration.ofMinutes(50), epic.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(5, loaded.getPrioritizedTasks().size());
+        int nextId = loaded.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        assertEquals(7, nextId);
+    }
+
+    @Test
+    void deleteEpic_removeSubtasksFromTheirShards() throws IOException {
+        ShardedTaskManager sharded = new ShardedTaskManager(tempDir, SnapshotFormat.CSV, 2);
+        int keptEpicId = sharded.createEpic(new Epic("Kept", "Desc"));
+        int epicId = sharded.createEpic(new Epic("Deleted", "Desc"));
+        sharded.createSubtask(new Subtask("Sub3", "Desc", TaskStatus.NEW, Duration.ZERO, null, epicId));
+        sharded.createSubtask(new Subtask("Sub4", "Desc", TaskStatus.NEW, Duration.ZERO, null, keptEpicId));
+        sharded.createSubtask(new Subtask("Sub5", "Desc", TaskStatus.NEW, Duration.ZERO, null, epicId));
+
+        sharded.deleteEpic(epicId);
+
+        ShardedTaskManager loaded = ShardedTaskManager.loadFromFile(tempDir);
+        assertEquals(1, loaded.getEpics().size());
+        assertEquals(List.of(4), loaded.getSubtasks().stream().map(Task::getId).toList());
+        assertEquals(List.of("epic-0-1.csv", "subtask-4-5.csv"), shardNames());
+    }
+
+    @Test
+    void deleteEpics_removeEpicAndSubtaskFiles() throws IOException {
+        int taskId = manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        int epicId = manager.createEpic(new Epic("Epic1", "DescEpic"));
+        manager.createSubtask(new Subtask("Sub1", "DescSub", TaskStatus.NEW, Duration.ZERO, null, epicId));
+
+        manager.deleteEpics();
+
+        assertEquals(List.of("task.csv"), shardNames());
+        assertEquals(taskId, ShardedTaskManager.loadFromFile(tempDir).getTasks().get(0).getId());
+    }
+
+    @Test
+    void createTask_newManagerReplaceOldShards() throws IOException {
+        ShardedTaskManager old = new ShardedTaskManager(tempDir, SnapshotFormat.CSV, 2);
+        old.createTask(new Task("Old1", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        old.createTask(new Task("Old2", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+        old.createTask(new Task("Old3", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        manager.createTask(new Task("New", "Desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        assertEquals(List.of("task.csv"), shardNames());
+        assertEquals("New", ShardedTaskManager.loadFromFile(tempDir).getTasks().get(0).getName());
+    }
+
+    @Test
+    void loadFromFile_throwException_mixedLayouts() throws IOException {
+        manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        Files.writeString(tempDir.resolve("task-0-9.csv"), "id,type,name,status,description,duration,startTime,epic\n");
+
+        assertThrows(ManagerSaveException.class, () -> ShardedTaskManager.loadFromFile(tempDir));
+    }
+
+    @Test
+    void loadFromFile_emptyDirectory() {
+        ShardedTaskManager loaded = ShardedTaskManager.loadFromFile(tempDir.resolve("missing"));
+
+        assertTrue(loaded.getTasks().isEmpty());
+        loaded.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        assertTrue(Files.exists(tempDir.resolve("missing").resolve("task.csv")));
+    }
+
+    @Test
+    void loadFromFile_restoreHistory() {
+        int taskId = manager.createTask(new Task("Task1", "Desc1", TaskStatus.NEW, Duration.ZERO, null));
+        int epicId = manager.createEpic(new Epic("Epic1", "Desc1"));
+        manager.getEpic(epicId);
+        manager.getTask(taskId);
+        ((ShardedTaskManager) manager).close();
+
+        ShardedTaskManager loaded = ShardedTaskManager.loadFromFile(tempDir);
+
+        assertEquals(List.of(epicId, taskId), loaded.getHistory().stream().map(Task::getId).toList());
+    }
+}
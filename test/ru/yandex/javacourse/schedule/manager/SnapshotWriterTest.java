@@ -0,0 +1,106 @@
+package ru.yandex.javacourse.schedule.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.Task;
+import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotWriterTest {
+    private static final int THREADS = 8;
+
+    private Path tempFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempFile = Files.createTempFile("snapshot", ".csv");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tempFile);
+        Files.deleteIfExists(historyOf(tempFile));
+    }
+
+    private static Path historyOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".history");
+    }
+
+    private static SnapshotWriter.State stateWith(int taskCount) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= taskCount; i++) {
+            tasks.add(new Task(i, "Task" + i, "Desc", TaskStatus.NEW, null, null));
+        }
+        return new SnapshotWriter.State(tasks, List.of(), List.of(), new int[0]);
+    }
+
+    @Test
+    public void groupCommit_coalesceConcurrentSaves() throws Exception {
+        SnapshotWriter writer = new SnapshotWriter(tempFile, historyOf(tempFile), SnapshotFormat.CSV,
+                DurabilityMode.GROUP_COMMIT, Duration.ofMillis(200));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i <= THREADS; i++) {
+            int taskCount = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                writer.save(stateWith(taskCount));
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, writer.getPendingMutations(), "every save should return only after being written");
+        assertTrue(writer.getWriteCount() < THREADS, "saves within the window should share one write");
+        writer.close();
+    }
+
+    @Test
+    public void async_returnBeforeWriteAndReportLag() {
+        SnapshotWriter writer = new SnapshotWriter(tempFile, historyOf(tempFile), SnapshotFormat.CSV,
+                DurabilityMode.ASYNC, Duration.ofSeconds(10));
+
+        writer.save(stateWith(1));
+        writer.close();
+
+        assertEquals(0, writer.getPendingMutations());
+        assertEquals(Duration.ZERO, writer.getLag());
+        assertEquals(1, writer.getWriteCount());
+    }
+
+    @Test
+    public void save_throwException_whenWriteFailed() {
+        Path missingDir = tempFile.resolveSibling("missing-dir").resolve("tasks.csv");
+        SnapshotWriter writer = new SnapshotWriter(missingDir, historyOf(missingDir), SnapshotFormat.CSV,
+                DurabilityMode.GROUP_COMMIT, Duration.ZERO);
+
+        assertThrows(ManagerSaveException.class, () -> writer.save(stateWith(1)));
+        assertThrows(ManagerSaveException.class, writer::close);
+    }
+
+    @Test
+    public void constructor_throwException_syncMode() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnapshotWriter(tempFile, historyOf(tempFile), SnapshotFormat.CSV,
+                        DurabilityMode.SYNC, Duration.ZERO));
+    }
+}
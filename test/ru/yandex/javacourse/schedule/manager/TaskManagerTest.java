@@ -6,10 +6,13 @@ import ru.yandex.javacourse.schedule.tasks.Epic;
 import ru.yandex.javacourse.schedule.tasks.Subtask;
 import ru.yandex.javacourse.schedule.tasks.Task;
 import ru.yandex.javacourse.schedule.tasks.TaskStatus;
+import ru.yandex.javacourse.schedule.tasks.TimeSlot;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -151,6 +154,76 @@ public abstract class TaskManagerTest {
         assertDoesNotThrow(() -> manager.createTask(task3));
     }
 
+    @Test
+    public void createTask_overlapWithZeroDurationTasks() {
+        Task point = new Task("Point", "Desc", TaskStatus.NEW,
+                Duration.ZERO, LocalDateTime.of(2025, 1, 1, 10, 30));
+        manager.createTask(point);
+
+        // Нулевая задача внутри нового интервала - пересечение
+        Task covering = new Task("Covering", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0));
+        assertThrows(TimeConflictException.class, () -> manager.createTask(covering));
+
+        // Нулевая задача на границе нового интервала - НЕ пересекается
+        Task touching = new Task("Touching", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 30));
+        assertDoesNotThrow(() -> manager.createTask(touching));
+
+        // Нулевая задача внутри существующего интервала - пересечение
+        Task inner = new Task("Inner", "Desc", TaskStatus.NEW,
+                Duration.ZERO, LocalDateTime.of(2025, 1, 1, 11, 0));
+        assertThrows(TimeConflictException.class, () -> manager.createTask(inner));
+    }
+
+    @Test
+    public void createTask_throwException_whenOverlapsNotNearestByStart() {
+        Task longTask = new Task("Long", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(120), LocalDateTime.of(2025, 1, 1, 10, 0));
+        Task point = new Task("Point", "Desc", TaskStatus.NEW,
+                Duration.ZERO, LocalDateTime.of(2025, 1, 1, 10, 0));
+        manager.createTask(longTask);
+        manager.createTask(point);
+
+        // Ближайшая по началу задача имеет нулевую длину, но длинная задача всё ещё идёт
+        Task task = new Task("Task", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 11, 0));
+        assertThrows(TimeConflictException.class, () -> manager.createTask(task));
+    }
+
+    @Test
+    public void updateTask_moveTaskWithinOwnSlot() {
+        Task task1 = new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0));
+        Task task2 = new Task("Task 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 0));
+        int task1Id = manager.createTask(task1);
+        manager.createTask(task2);
+
+        // Сдвиг внутри собственного интервала не конфликтует с самой задачей
+        Task shifted = new Task(task1Id, "Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 30));
+        assertDoesNotThrow(() -> manager.updateTask(shifted));
+
+        Task free = new Task("Free", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0));
+        assertDoesNotThrow(() -> manager.createTask(free));
+    }
+
+    @Test
+    public void deleteEpic_releaseSubtaskTimeSlots() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0), epicId));
+
+        manager.deleteEpic(epicId);
+
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Subtasks of deleted epic should leave prioritized list");
+        Task task = new Task("Task", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0));
+        assertDoesNotThrow(() -> manager.createTask(task));
+    }
+
     @Test
     public void createSubtask_throwException_nonExistentEpic() {
         // Создаем subtask с привязкой к несуществующему epic
@@ -175,16 +248,225 @@ public abstract class TaskManagerTest {
         assertThrows(TimeConflictException.class, () -> manager.createSubtask(subtask2));
     }
 
+    @Test
+    public void createTasks_addWholeBatch() {
+        List<Task> batch = List.of(
+                new Task("Task 1", "Desc", TaskStatus.NEW, Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 0)),
+                new Task("Task 2", "Desc", TaskStatus.NEW, null, null),
+                new Task("Task 3", "Desc", TaskStatus.NEW, Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0)));
+
+        List<Integer> ids = manager.createTasks(batch);
+
+        assertEquals(List.of(1, 2, 3), ids);
+        assertEquals(3, manager.getTasks().size());
+        assertEquals("Task 3", manager.getPrioritizedTasks().get(0).getName());
+    }
+
+    @Test
+    public void createTasks_rejectWholeBatch_whenTasksInBatchOverlap() {
+        manager.createTask(new Task("Existing", "Desc", TaskStatus.NEW, null, null));
+        List<Task> batch = List.of(
+                new Task("Task 1", "Desc", TaskStatus.NEW, Duration.ofMinutes(120), LocalDateTime.of(2025, 1, 1, 10, 0)),
+                new Task("Task 2", "Desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 30)),
+                new Task("Task 3", "Desc", TaskStatus.NEW, Duration.ZERO, LocalDateTime.of(2025, 1, 1, 11, 0)));
+
+        assertThrows(TimeConflictException.class, () -> manager.createTasks(batch));
+        assertEquals(1, manager.getTasks().size(), "no task from failed batch should be added");
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+
+        Task afterFailure = new Task("After", "Desc", TaskStatus.NEW, null, null);
+        assertEquals(2, manager.createTask(afterFailure), "failed batch should not consume ids");
+    }
+
+    @Test
+    public void createTasks_rejectWholeBatch_whenOverlapsWithExisting() {
+        manager.createTask(new Task("Existing", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        List<Task> batch = List.of(
+                new Task("Task 1", "Desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 8, 0)),
+                new Task("Task 2", "Desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 30)));
+
+        assertThrows(TimeConflictException.class, () -> manager.createTasks(batch));
+        assertEquals(1, manager.getTasks().size());
+    }
+
+    @Test
+    public void createTasks_throwException_duplicateIdsInBatch() {
+        List<Task> batch = List.of(
+                new Task("Task 1", "Desc", TaskStatus.NEW, null, null),
+                new Task(1, "Task 2", "Desc", TaskStatus.NEW, null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createTasks(batch));
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    public void createSubtasks_recalculateEachEpic() {
+        int epic1Id = manager.createEpic(new Epic("Epic 1", "Desc"));
+        int epic2Id = manager.createEpic(new Epic("Epic 2", "Desc"));
+        List<Subtask> batch = List.of(
+                new Subtask("Sub 1", "Desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                        LocalDateTime.of(2025, 1, 1, 10, 0), epic1Id),
+                new Subtask("Sub 2", "Desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                        LocalDateTime.of(2025, 1, 1, 12, 0), epic1Id),
+                new Subtask("Sub 3", "Desc", TaskStatus.NEW, null, null, epic2Id));
+
+        manager.createSubtasks(batch);
+
+        Epic epic1 = manager.getEpic(epic1Id);
+        assertEquals(TaskStatus.DONE, epic1.getStatus());
+        assertEquals(Duration.ofMinutes(60), epic1.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), epic1.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 30), epic1.getEndTime());
+        assertEquals(1, manager.getEpicSubtasks(epic2Id).size());
+    }
+
+    @Test
+    public void createSubtasks_throwException_nonExistentEpic() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        List<Subtask> batch = List.of(
+                new Subtask("Sub 1", "Desc", TaskStatus.NEW, null, null, epicId),
+                new Subtask("Sub 2", "Desc", TaskStatus.NEW, null, null, 999));
+
+        assertThrows(NotFoundException.class, () -> manager.createSubtasks(batch));
+        assertTrue(manager.getSubtasks().isEmpty());
+        assertTrue(manager.getEpic(epicId).getSubtaskIds().isEmpty());
+    }
+
+    @Test
+    public void updateTasks_swapTimeSlots() {
+        int task1Id = manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        int task2Id = manager.createTask(new Task("Task 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 0)));
+
+        manager.updateTasks(List.of(
+                new Task(task1Id, "Task 1", "Desc", TaskStatus.NEW,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 0)),
+                new Task(task2Id, "Task 2", "Desc", TaskStatus.DONE,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0))));
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(task2Id, prioritized.get(0).getId());
+        assertEquals(task1Id, prioritized.get(1).getId());
+        assertEquals(TaskStatus.DONE, manager.getTask(task2Id).getStatus());
+    }
+
+    @Test
+    public void updateTasks_keepOldVersions_whenBatchConflicts() {
+        int task1Id = manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        int task2Id = manager.createTask(new Task("Task 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 12, 0)));
+
+        assertThrows(TimeConflictException.class, () -> manager.updateTasks(List.of(
+                new Task(task1Id, "Task 1", "Updated", TaskStatus.DONE,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 0)),
+                new Task(task2Id, "Task 2", "Updated", TaskStatus.DONE,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 30)))));
+
+        assertEquals("Desc", manager.getTask(task1Id).getDescription());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), manager.getPrioritizedTasks().get(0).getStartTime());
+        Task conflicting = new Task("Task 3", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 12, 15));
+        assertThrows(TimeConflictException.class, () -> manager.createTask(conflicting),
+                "old version should still occupy its slot");
+    }
+
+    @Test
+    public void getTasks_returnPagesAfterCursor() {
+        for (int i = 1; i <= 5; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW, null, null));
+        }
+
+        List<Task> first = manager.getTasks(null, 2);
+        List<Task> second = manager.getTasks(first.get(1).getId(), 2);
+        List<Task> last = manager.getTasks(second.get(1).getId(), 2);
+
+        assertEquals(List.of(1, 2), first.stream().map(Task::getId).toList());
+        assertEquals(List.of(3, 4), second.stream().map(Task::getId).toList());
+        assertEquals(List.of(5), last.stream().map(Task::getId).toList());
+        assertTrue(manager.getTasks(5, 2).isEmpty());
+    }
+
+    @Test
+    public void getTasks_continueAfterDeletedCursor() {
+        for (int i = 1; i <= 4; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW, null, null));
+        }
+
+        manager.deleteTask(2);
+
+        assertEquals(List.of(3, 4), manager.getTasks(2, 10).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void getTasks_throwException_nonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasks(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(null, null, -1));
+    }
+
+    @Test
+    public void getSubtasksAndEpics_returnPages() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        int secondEpicId = manager.createEpic(new Epic("Epic 2", "Desc"));
+        int sub1 = manager.createSubtask(new Subtask("Sub 1", "Desc", TaskStatus.NEW, null, null, epicId));
+        int sub2 = manager.createSubtask(new Subtask("Sub 2", "Desc", TaskStatus.NEW, null, null, epicId));
+
+        assertEquals(List.of(sub2), manager.getSubtasks(sub1, 5).stream().map(Task::getId).toList());
+        assertEquals(List.of(secondEpicId), manager.getEpics(epicId, 5).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void getPrioritizedTasks_resumeFromTimeAndIdCursor() {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 10, 0);
+        int first = manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW, Duration.ZERO, time));
+        int second = manager.createTask(new Task("Task 2", "Desc", TaskStatus.NEW, Duration.ZERO, time));
+        int third = manager.createTask(new Task("Task 3", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), time.plusHours(1)));
+
+        List<Task> page = manager.getPrioritizedTasks(null, null, 1);
+        assertEquals(first, page.get(0).getId());
+
+        page = manager.getPrioritizedTasks(time, first, 1);
+        assertEquals(second, page.get(0).getId(), "task with the same start time should not be skipped");
+
+        page = manager.getPrioritizedTasks(time, second, 5);
+        assertEquals(List.of(third), page.stream().map(Task::getId).toList());
+        assertEquals(List.of(third), manager.getPrioritizedTasks(time.plusMinutes(1), null, 5)
+                .stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void streamTasks_walkStorageLazily() {
+        for (int i = 1; i <= 3; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW,
+                    Duration.ofMinutes(10), LocalDateTime.of(2025, 1, 1, 13 - i, 0)));
+        }
+
+        assertEquals(List.of(2, 3), manager.streamTasks().skip(1).map(Task::getId).toList());
+        assertEquals(List.of(3, 2), manager.streamPrioritizedTasks().limit(2).map(Task::getId).toList());
+        manager.getTasks();
+        assertEquals(3, manager.streamTasks().count(), "stream should also work over cached snapshot");
+        assertTrue(manager.streamSubtasks().findAny().isEmpty());
+        assertTrue(manager.streamEpics().findAny().isEmpty());
+    }
+
     @Test
     public void getTask_taskModificationThroughSettersNotAffectManager() {
         Task task = new Task("Test Task", "Test Description", TaskStatus.NEW, null, null);
         int taskId = manager.createTask(task);
 
-        // Получаем задачу из менеджера и меняем ее через сеттер
+        // Задача из менеджера доступна только для чтения
         Task savedTask = manager.getTask(taskId);
-        savedTask.setName("Modified Name");
-        savedTask.setStatus(TaskStatus.DONE);
-        savedTask.setDescription("Modified Description");
+        assertThrows(UnsupportedOperationException.class, () -> savedTask.setName("Modified Name"));
+        assertThrows(UnsupportedOperationException.class, () -> savedTask.setStatus(TaskStatus.DONE));
+
+        // Изменяемая копия не связана с менеджером
+        Task copy = new Task(savedTask);
+        copy.setName("Modified Name");
+        copy.setStatus(TaskStatus.DONE);
+        copy.setDescription("Modified Description");
 
         // Проверяем, что изменения не отразились в менеджере
         Task taskFromManager = manager.getTask(taskId);
@@ -194,6 +476,71 @@ public abstract class TaskManagerTest {
                 "Task status was modified in manager through setter - this is a data integrity issue");
     }
 
+    @Test
+    public void getTask_returnStoredInstanceWithoutCopy() {
+        int taskId = manager.createTask(new Task("Task", "Desc", TaskStatus.NEW, null, null));
+
+        Task first = manager.getTask(taskId);
+        assertSame(first, manager.getTask(taskId));
+        assertSame(first, manager.getHistory().get(0));
+        assertTrue(first.isFrozen());
+    }
+
+    @Test
+    public void getHistory_showCurrentVersionAfterUpdate() {
+        int first = manager.createTask(new Task("First", "Desc", TaskStatus.NEW, null, null));
+        int second = manager.createTask(new Task("Second", "Desc", TaskStatus.NEW, null, null));
+        manager.getTask(first);
+        manager.getTask(second);
+
+        manager.updateTask(new Task(first, "First", "Desc", TaskStatus.DONE, null, null));
+
+        List<Task> history = manager.getHistory();
+        assertEquals(List.of(first, second), history.stream().map(Task::getId).toList());
+        assertSame(manager.getTasks().get(0), history.get(0));
+        assertEquals(TaskStatus.DONE, history.get(0).getStatus());
+    }
+
+    @Test
+    public void getHistory_keepSubtaskFieldsAndEpicStatus() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        int subtaskId = manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.NEW, null, null, epicId));
+        manager.getEpic(epicId);
+        manager.getSubtask(subtaskId);
+
+        manager.updateSubtask(new Subtask(subtaskId, "Sub", "Desc", TaskStatus.DONE, null, null, epicId));
+
+        List<Task> history = manager.getHistory();
+        assertEquals(TaskStatus.DONE, history.get(0).getStatus());
+        assertEquals(epicId, ((Subtask) history.get(1)).getEpicId());
+        assertEquals(TaskStatus.DONE, history.get(1).getStatus());
+    }
+
+    @Test
+    public void createTask_callerObjectStaysMutable() {
+        Task task = new Task("Task", "Desc", TaskStatus.NEW, null, null);
+        int taskId = manager.createTask(task);
+
+        task.setStatus(TaskStatus.DONE);
+
+        assertEquals(TaskStatus.NEW, manager.getTask(taskId).getStatus(), "manager should keep its own copy");
+    }
+
+    @Test
+    public void updateSubtask_publishNewEpicVersion() {
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        Subtask subtask = new Subtask("Sub", "Desc", TaskStatus.NEW, null, null, epicId);
+        manager.createSubtask(subtask);
+        Epic before = manager.getEpic(epicId);
+
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+
+        assertEquals(TaskStatus.NEW, before.getStatus(), "already returned version should not change");
+        assertEquals(TaskStatus.DONE, manager.getEpic(epicId).getStatus());
+        assertEquals(TaskStatus.DONE, manager.getEpics().get(0).getStatus());
+    }
+
     @Test
     public void getSubtask_subtaskStatusModificationAffectEpicStatusOnlyViaManager() {
         Epic epic = new Epic("Test Epic", "Test Epic Description");
@@ -202,8 +549,8 @@ public abstract class TaskManagerTest {
         Subtask subtask = new Subtask(3, "Test Subtask", "Test Description", TaskStatus.NEW, null, null, epicId);
         int subtaskId = manager.createSubtask(subtask);
 
-        // Меняем статус подзадачи через сеттер
-        Subtask savedSubtask = manager.getSubtask(subtaskId);
+        // Меняем статус копии подзадачи через сеттер
+        Subtask savedSubtask = new Subtask(manager.getSubtask(subtaskId));
         savedSubtask.setStatus(TaskStatus.DONE);
 
         // Проверяем, что статус эпика не обновился в менеджере
@@ -248,9 +595,10 @@ public abstract class TaskManagerTest {
         Subtask subtask = new Subtask(3, "Test Subtask", "Test Description", TaskStatus.NEW, null, null, epicId);
         manager.createSubtask(subtask);
 
-        // Меняем статус эпика через сеттер
+        // Эпик из менеджера нельзя изменить в обход бизнес-логики
         Epic savedEpic = manager.getEpic(epicId);
-        savedEpic.setStatus(TaskStatus.DONE);
+        assertThrows(UnsupportedOperationException.class, () -> savedEpic.setStatus(TaskStatus.DONE));
+        assertThrows(UnsupportedOperationException.class, () -> savedEpic.addSubtaskId(42));
 
         // Проверяем, что изменения не отразились в менеджере
         Epic epicFromManager = manager.getEpic(epicId);
@@ -396,6 +744,88 @@ public abstract class TaskManagerTest {
         assertEquals("Task 2", prioritized.get(2).getName());
     }
 
+    @Test
+    public void getTasks_returnSameSnapshot_noWritesBetweenReads() {
+        manager.createTask(new Task("Task", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        int epicId = manager.createEpic(new Epic("Epic", "Desc"));
+        manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.NEW, null, null, epicId));
+
+        assertSame(manager.getTasks(), manager.getTasks(), "tasks snapshot should be reused");
+        assertSame(manager.getEpics(), manager.getEpics(), "epics snapshot should be reused");
+        assertSame(manager.getSubtasks(), manager.getSubtasks(), "subtasks snapshot should be reused");
+        assertSame(manager.getPrioritizedTasks(), manager.getPrioritizedTasks(), "prioritized snapshot should be reused");
+    }
+
+    @Test
+    public void getTasks_returnNewSnapshot_afterWrite() {
+        manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        List<Task> before = manager.getTasks();
+        List<Task> prioritizedBefore = manager.getPrioritizedTasks();
+
+        manager.createTask(new Task("Task 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 11, 0)));
+
+        assertEquals(1, before.size(), "old snapshot should not change");
+        assertEquals(1, prioritizedBefore.size(), "old snapshot should not change");
+        assertEquals(2, manager.getTasks().size());
+        assertEquals(2, manager.getPrioritizedTasks().size());
+        assertThrows(UnsupportedOperationException.class, () -> manager.getTasks().clear(),
+                "snapshot should be immutable");
+    }
+
+    @Test
+    public void getFreeSlots_returnGapsBetweenTasks() {
+        manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 9, 30)));
+        manager.createTask(new Task("Task 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2025, 1, 1, 10, 45)));
+        manager.createTask(new Task("Task 3", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 11, 30)));
+
+        List<TimeSlot> slots = manager.getFreeSlots(LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 14, 0), Duration.ofMinutes(30), 10);
+
+        // Окно 10:30-10:45 слишком короткое
+        assertEquals(List.of(
+                new TimeSlot(LocalDateTime.of(2025, 1, 1, 11, 0), LocalDateTime.of(2025, 1, 1, 11, 30)),
+                new TimeSlot(LocalDateTime.of(2025, 1, 1, 12, 30), LocalDateTime.of(2025, 1, 1, 14, 0))
+        ), slots);
+    }
+
+    @Test
+    public void getFreeSlots_respectLimitAndZeroDurationTasks() {
+        manager.createTask(new Task("Point", "Desc", TaskStatus.NEW,
+                Duration.ZERO, LocalDateTime.of(2025, 1, 1, 11, 0)));
+
+        List<TimeSlot> slots = manager.getFreeSlots(LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ofMinutes(30), 1);
+
+        assertEquals(List.of(
+                new TimeSlot(LocalDateTime.of(2025, 1, 1, 10, 0), LocalDateTime.of(2025, 1, 1, 11, 0))
+        ), slots);
+    }
+
+    @Test
+    public void getFreeSlots_foundSlotDoesNotConflict() {
+        manager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 1, 1, 9, 0)));
+
+        TimeSlot slot = manager.getFreeSlots(LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ofMinutes(30), 1).get(0);
+
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 30), slot.getStartTime());
+        Task task = new Task("Task 2", "Desc", TaskStatus.NEW, Duration.ofMinutes(30), slot.getStartTime());
+        assertDoesNotThrow(() -> manager.createTask(task));
+    }
+
+    @Test
+    public void getFreeSlots_throwException_invalidDuration() {
+        assertThrows(IllegalArgumentException.class, () -> manager.getFreeSlots(LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ZERO, 1));
+    }
+
     @Test
     public void updateTask_doNotThrowException_nonExistentTask() {
         Task task = new Task(999, "Test", "Description", TaskStatus.NEW, null, null);
@@ -449,7 +879,7 @@ public abstract class TaskManagerTest {
         assertEquals(TaskStatus.NEW, epicFromManager.getStatus());
 
         // Меняем одну подзадачу на IN_PROGRESS
-        Subtask savedSubtask1 = manager.getSubtask(subtask1.getId());
+        Subtask savedSubtask1 = new Subtask(manager.getSubtask(subtask1.getId()));
         savedSubtask1.setStatus(TaskStatus.IN_PROGRESS);
         manager.updateSubtask(savedSubtask1);
 
@@ -461,7 +891,7 @@ public abstract class TaskManagerTest {
         savedSubtask1.setStatus(TaskStatus.DONE);
         manager.updateSubtask(savedSubtask1);
 
-        Subtask savedSubtask2 = manager.getSubtask(subtask2.getId());
+        Subtask savedSubtask2 = new Subtask(manager.getSubtask(subtask2.getId()));
         savedSubtask2.setStatus(TaskStatus.DONE);
         manager.updateSubtask(savedSubtask2);
 
@@ -554,6 +984,62 @@ public abstract class TaskManagerTest {
                 "Epic without subtasks should be NEW");
     }
 
+    @Test
+    public void updateSubtask_epicParamsMatchFullRecalculation() {
+        int epic1Id = manager.createEpic(new Epic("Epic 1", "Desc"));
+        int epic2Id = manager.createEpic(new Epic("Epic 2", "Desc"));
+        Random random = new Random(42);
+        TaskStatus[] statuses = TaskStatus.values();
+
+        for (int i = 0; i < 300; i++) {
+            List<Subtask> existing = manager.getSubtasks();
+            int epicId = random.nextBoolean() ? epic1Id : epic2Id;
+            TaskStatus status = statuses[random.nextInt(statuses.length)];
+            Duration duration = Duration.ofMinutes(random.nextInt(3) * 15L);
+            LocalDateTime start = random.nextInt(4) == 0 ? null : LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i);
+            int action = existing.isEmpty() ? 0 : random.nextInt(3);
+            if (action == 0) {
+                manager.createSubtask(new Subtask("Subtask", "Desc", status, duration, start, epicId));
+            } else if (action == 1) {
+                Subtask old = existing.get(random.nextInt(existing.size()));
+                manager.updateSubtask(new Subtask(old.getId(), "Subtask", "Desc", status, duration, start, epicId));
+            } else {
+                manager.deleteSubtask(existing.get(random.nextInt(existing.size())).getId());
+            }
+
+            assertEpicMatchesSubtasks(manager.getEpic(epic1Id));
+            assertEpicMatchesSubtasks(manager.getEpic(epic2Id));
+        }
+    }
+
+    private void assertEpicMatchesSubtasks(Epic epic) {
+        List<Subtask> epicSubtasks = manager.getEpicSubtasks(epic.getId());
+        TaskStatus expectedStatus = TaskStatus.NEW;
+        if (!epicSubtasks.isEmpty()) {
+            boolean allNew = epicSubtasks.stream().allMatch(s -> s.getStatus() == TaskStatus.NEW);
+            boolean allDone = epicSubtasks.stream().allMatch(s -> s.getStatus() == TaskStatus.DONE);
+            expectedStatus = allNew ? TaskStatus.NEW : allDone ? TaskStatus.DONE : TaskStatus.IN_PROGRESS;
+        }
+        Duration expectedDuration = epicSubtasks.stream()
+                .map(Subtask::getDuration)
+                .reduce(Duration.ZERO, Duration::plus);
+        LocalDateTime expectedStart = epicSubtasks.stream()
+                .map(Subtask::getStartTime)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        LocalDateTime expectedEnd = epicSubtasks.stream()
+                .map(Subtask::getEndTime)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+
+        assertEquals(expectedStatus, epic.getStatus(), "epic status should match subtasks");
+        assertEquals(expectedDuration, epic.getDuration(), "epic duration should match subtasks");
+        assertEquals(expectedStart, epic.getStartTime(), "epic start should match subtasks");
+        assertEquals(expectedEnd, epic.getEndTime(), "epic end should match subtasks");
+    }
+
     @Test
     public void deleteTasks_removeAllTasks() {
         Task task1 = new Task("Task 1", "Description 1", TaskStatus.NEW, null, null);
@@ -2,7 +2,9 @@ package ru.yandex.javacourse.schedule.tasks;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class EpicTest {
 
@@ -29,4 +31,26 @@ public class EpicTest {
         epic.addSubtaskId(0);
         assertEquals(0, epic.getSubtaskIds().size(), "epic should not add itself as subtask");
     }
+
+    @Test
+    public void removeSubtask_keepOrderOfRemainingIds() {
+        Epic epic = new Epic(0, "Epic 1", "Testing epic 1");
+        epic.addSubtaskId(3);
+        epic.addSubtaskId(1);
+        epic.addSubtaskId(2);
+        epic.removeSubtask(1);
+        epic.addSubtaskId(4);
+        assertEquals(List.of(3, 2, 4), epic.getSubtaskIds(), "subtask ids should keep insertion order");
+        assertTrue(epic.containsSubtaskId(2));
+        assertFalse(epic.containsSubtaskId(1));
+    }
+
+    @Test
+    public void copy_notShareSubtaskIds() {
+        Epic epic = new Epic(0, "Epic 1", "Testing epic 1");
+        epic.addSubtaskId(1);
+        Epic copy = new Epic(epic);
+        epic.addSubtaskId(2);
+        assertEquals(List.of(1), copy.getSubtaskIds(), "copy should not see later changes");
+    }
 }
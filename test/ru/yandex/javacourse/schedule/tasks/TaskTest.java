@@ -2,7 +2,7 @@ package ru.yandex.javacourse.schedule.tasks;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TaskTest {
 
@@ -12,4 +12,19 @@ public class TaskTest {
         Task t1 = new Task(1, "Test 2", "Testing task 2", TaskStatus.IN_PROGRESS, null, null);
         assertEquals(t0, t1, "task entities should be compared by id");
     }
+
+    @Test
+    public void freeze_forbidSettersButAllowMutableCopy() {
+        Task task = new Task(1, "Test 1", "Testing task 1", TaskStatus.NEW, null, null);
+        task.freeze();
+
+        assertTrue(task.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> task.setStatus(TaskStatus.DONE));
+        assertThrows(UnsupportedOperationException.class, () -> task.setId(2));
+
+        Task copy = new Task(task);
+        assertFalse(copy.isFrozen());
+        copy.setStatus(TaskStatus.DONE);
+        assertEquals(TaskStatus.NEW, task.getStatus());
+    }
 }
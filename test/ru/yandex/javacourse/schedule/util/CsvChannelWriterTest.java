@@ -0,0 +1,71 @@
+package ru.yandex.javacourse.schedule.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvChannelWriterTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tasks", ".csv");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void write(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CsvChannelWriter.write(channel, "header", tasks, epics, subtasks);
+        }
+    }
+
+    @Test
+    void write_encodeSameBytesAsString() throws IOException {
+        Task task = new Task(1, "Задача 🚀", "Broken \uD800 pair, é", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2025, 1, 1, 10, 0));
+        Epic epic = new Epic(2, "Эпик", "Описание");
+        Subtask subtask = new Subtask(3, "Sub", "Desc", TaskStatus.DONE, Duration.ZERO, null, 2);
+
+        write(List.of(task), List.of(epic), List.of(subtask));
+
+        String expected = "header" + System.lineSeparator()
+                + TaskCSVConverter.fromTaskToString(task) + System.lineSeparator()
+                + TaskCSVConverter.fromTaskToString(epic) + System.lineSeparator()
+                + TaskCSVConverter.fromTaskToString(subtask) + System.lineSeparator();
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file));
+    }
+
+    @Test
+    void write_flushMoreThanOneBuffer() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("header").append(System.lineSeparator());
+        for (int id = 1; id <= 5_000; id++) {
+            Task task = new Task(id, "Задача" + id, "Описание задачи", TaskStatus.NEW, Duration.ZERO, null);
+            tasks.add(task);
+            expected.append(TaskCSVConverter.fromTaskToString(task)).append(System.lineSeparator());
+        }
+
+        write(tasks, List.of(), List.of());
+
+        assertEquals(expected.toString(), Files.readString(file));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.javacourse.schedule.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskBinaryFormatTest {
+    private Path binaryFile;
+    private Path csvFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        binaryFile = Files.createTempFile("tasks", ".bin");
+        csvFile = Files.createTempFile("tasks", ".csv");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryFile);
+        Files.deleteIfExists(csvFile);
+    }
+
+    private List<Task> writeAndRead(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) throws IOException {
+        try (OutputStream out = Files.newOutputStream(binaryFile)) {
+            TaskBinaryFormat.write(out, tasks, epics, subtasks);
+        }
+        List<Task> loaded = new ArrayList<>();
+        TaskBinaryFormat.read(binaryFile, loaded::add);
+        return loaded;
+    }
+
+    @Test
+    public void read_restoreAllFields() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 30);
+        Task task = new Task(1, "Задача, с запятой", "Desc", TaskStatus.IN_PROGRESS, Duration.ofMinutes(90), start);
+        Task untimed = new Task(2, "Task", null, null, null, null);
+        Epic epic = new Epic(3, "Epic", "Desc");
+        Subtask subtask = new Subtask(4, "Sub", "Desc", TaskStatus.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(1960, 1, 1, 0, 0, 15, 500), 3);
+
+        List<Task> loaded = writeAndRead(List.of(task, untimed), List.of(epic), List.of(subtask));
+
+        assertEquals(4, loaded.size());
+        Task loadedTask = loaded.get(0);
+        assertEquals("Задача, с запятой", loadedTask.getName());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedTask.getStatus());
+        assertEquals(Duration.ofMinutes(90), loadedTask.getDuration());
+        assertEquals(start, loadedTask.getStartTime());
+
+        Task loadedUntimed = loaded.get(1);
+        assertNull(loadedUntimed.getDescription());
+        assertNull(loadedUntimed.getStatus());
+        assertNull(loadedUntimed.getStartTime());
+
+        assertEquals(TaskType.EPIC, loaded.get(2).getType());
+        assertEquals("Epic", loaded.get(2).getName());
+
+        Subtask loadedSubtask = (Subtask) loaded.get(3);
+        assertEquals(3, loadedSubtask.getEpicId());
+        assertEquals(subtask.getStartTime(), loadedSubtask.getStartTime(), "sub-minute precision should be kept");
+    }
+
+    @Test
+    public void read_throwException_checksumMismatch() throws IOException {
+        writeAndRead(List.of(new Task(1, "Task", "Desc", TaskStatus.NEW, null, null)), List.of(), List.of());
+        byte[] bytes = Files.readAllBytes(binaryFile);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(binaryFile, bytes);
+
+        assertThrows(IOException.class, () -> TaskBinaryFormat.read(binaryFile, task -> { }));
+    }
+
+    @Test
+    public void isBinarySnapshot_distinguishCsv() throws IOException {
+        Files.writeString(csvFile, "id,type,name,status,description,duration,startTime,epic\n");
+        writeAndRead(List.of(), List.of(), List.of());
+
+        assertTrue(TaskBinaryFormat.isBinarySnapshot(binaryFile));
+        assertFalse(TaskBinaryFormat.isBinarySnapshot(csvFile));
+        assertFalse(TaskBinaryFormat.isBinarySnapshot(csvFile.resolveSibling("missing.bin")));
+    }
+
+    @Test
+    public void convertFromCsv_keepAllTasks() throws IOException {
+        Files.writeString(csvFile, """
+                id,type,name,status,description,duration,startTime,epic
+                1,TASK,Task1,NEW,Desc1,10,2025-01-01T10:00,
+                2,EPIC,Epic1,NEW,DescEpic,0,null,
+                3,SUBTASK,Sub1,DONE,DescSub,10,null,2
+                """);
+
+        TaskBinaryFormat.convertFromCsv(csvFile, binaryFile);
+
+        List<Task> loaded = new ArrayList<>();
+        TaskBinaryFormat.read(binaryFile, loaded::add);
+        assertEquals(List.of(1, 2, 3), loaded.stream().map(Task::getId).toList());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), loaded.get(0).getStartTime());
+        assertEquals(2, ((Subtask) loaded.get(2)).getEpicId());
+    }
+
+    @Test
+    public void read_keepEpicParams() throws IOException {
+        Epic epic = new Epic(3, "Epic", "Desc");
+        epic.setStatus(TaskStatus.IN_PROGRESS);
+        epic.setDuration(Duration.ofMinutes(45));
+        epic.setStartTime(LocalDateTime.of(2025, 3, 1, 9, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 3, 2, 18, 30));
+        epic.setParamsChecksum(-8_123_456_789L);
+
+        Epic loaded = (Epic) writeAndRead(List.of(), List.of(epic), List.of()).get(0);
+
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.getStatus());
+        assertEquals(Duration.ofMinutes(45), loaded.getDuration());
+        assertEquals(epic.getStartTime(), loaded.getStartTime());
+        assertEquals(epic.getEndTime(), loaded.getEndTime());
+        assertEquals(-8_123_456_789L, loaded.getParamsChecksum());
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.javacourse.schedule.util;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.javacourse.schedule.tasks.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskCSVConverterTest {
+
+    private static void assertSameFields(Task expected, Task actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+    }
+
+    @Test
+    void fromTaskToString_keepPlainFormat() {
+        Task task = new Task(1, "Task1", "Desc1", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 10, 0));
+        Subtask subtask = new Subtask(2, "Sub", "Desc", TaskStatus.DONE, Duration.ofMinutes(5), null, 7);
+
+        assertEquals("1,TASK,Task1,NEW,Desc1,30,2025-01-01T10:00,", TaskCSVConverter.fromTaskToString(task));
+        assertEquals("2,SUBTASK,Sub,DONE,Desc,5,null,7", TaskCSVConverter.fromTaskToString(subtask));
+    }
+
+    @Test
+    void fromTaskToString_quoteSpecialCharacters() {
+        Task task = new Task(1, "Say \"hi\"", "a,b\nc", TaskStatus.NEW, Duration.ZERO, null);
+
+        assertEquals("1,TASK,\"Say \"\"hi\"\"\",NEW,\"a,b\nc\",0,null,", TaskCSVConverter.fromTaskToString(task));
+    }
+
+    @Test
+    void fromStringToTask_roundTripQuotedFields() {
+        Subtask subtask = new Subtask(5, "Name, with comma", "\"Quoted\"\r\nmultiline, text", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 3, 4, 5, 6, 7, 890_000_000), 3);
+
+        Task parsed = TaskCSVConverter.fromStringToTask(TaskCSVConverter.fromTaskToString(subtask));
+
+        assertSameFields(subtask, parsed);
+        assertEquals(3, ((Subtask) parsed).getEpicId());
+    }
+
+    @Test
+    void fromStringToTask_parseAllTimeFormats() {
+        for (LocalDateTime time : new LocalDateTime[]{
+                LocalDateTime.of(2025, 1, 1, 10, 0),
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30),
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30, 123_000),
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30, 123_456_789),
+                LocalDateTime.of(12025, 1, 1, 10, 0)}) {
+            Task task = new Task(1, "T", "D", TaskStatus.NEW, Duration.ofMinutes(1), time);
+
+            Task parsed = TaskCSVConverter.fromStringToTask(TaskCSVConverter.fromTaskToString(task));
+
+            assertEquals(time, parsed.getStartTime());
+        }
+    }
+
+    @Test
+    void fromStringToTask_parseRange() {
+        String text = "header\n3,epic,Epic,NEW,Desc,0,,\n";
+
+        Task parsed = TaskCSVConverter.fromStringToTask(text, 7, text.length() - 1);
+
+        assertEquals(TaskType.EPIC, parsed.getType());
+        assertEquals(3, parsed.getId());
+        assertNull(parsed.getStartTime());
+    }
+
+    @Test
+    void fromStringToTask_throwException_malformedRecord() {
+        assertThrows(IllegalArgumentException.class, () -> TaskCSVConverter.fromStringToTask("x,TASK,T,NEW,D,0,null,"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCSVConverter.fromStringToTask("1,TASK,\"T,NEW,D,0,null,"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCSVConverter.fromStringToTask("1,SUBTASK,T,NEW,D,0,null"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCSVConverter.fromStringToTask("1,TASK,T,DRAFT,D,0,null,"));
+    }
+
+    @Test
+    void readRecord_joinLinesInsideQuotes() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("1,TASK,T,NEW,\"a\nb\",0,null,\n2,EPIC,E,NEW,D,0,null,\n"));
+
+        assertEquals("1,TASK,T,NEW,\"a\nb\",0,null,", TaskCSVConverter.readRecord(reader));
+        assertEquals("2,EPIC,E,NEW,D,0,null,", TaskCSVConverter.readRecord(reader));
+        assertNull(TaskCSVConverter.readRecord(reader));
+    }
+
+    @Test
+    void readRecord_keepCarriageReturnsInsideQuotes() throws IOException {
+        Task task = new Task(1, "line1\r\nline2\rx \"q\"", "a\rb", TaskStatus.NEW, Duration.ZERO, null);
+        String line = TaskCSVConverter.fromTaskToString(task);
+        BufferedReader reader = new BufferedReader(new StringReader(line + "\r\n" + line + "\n"));
+
+        String first = TaskCSVConverter.readRecord(reader);
+        assertEquals(line, first, "CRLF after the record should be stripped");
+        assertEquals(line, TaskCSVConverter.readRecord(reader));
+        assertNull(TaskCSVConverter.readRecord(reader));
+
+        Task loaded = TaskCSVConverter.fromStringToTask(first);
+        assertEquals("line1\r\nline2\rx \"q\"", loaded.getName());
+        assertEquals("a\rb", loaded.getDescription());
+    }
+
+    @Test
+    void fromStringToTask_keepEpicParams() {
+        Epic epic = new Epic(3, "Epic", "Desc");
+        epic.setStatus(TaskStatus.IN_PROGRESS);
+        epic.setDuration(Duration.ofMinutes(45));
+        epic.setStartTime(LocalDateTime.of(2025, 3, 1, 9, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 3, 2, 18, 30));
+        epic.setParamsChecksum(-8_123_456_789L);
+
+        Epic parsed = (Epic) TaskCSVConverter.fromStringToTask(TaskCSVConverter.fromTaskToString(epic));
+
+        assertSameFields(epic, parsed);
+        assertEquals(epic.getEndTime(), parsed.getEndTime());
+        assertEquals(-8_123_456_789L, parsed.getParamsChecksum());
+    }
+
+    @Test
+    void fromStringToTask_epicWithoutChecksum() {
+        Epic parsed = (Epic) TaskCSVConverter.fromStringToTask("3,EPIC,Epic,DONE,Desc,30,2025-01-01T10:00,");
+
+        assertEquals(TaskStatus.NEW, parsed.getStatus());
+        assertNull(parsed.getStartTime());
+        assertEquals(0, parsed.getParamsChecksum());
+    }
+}
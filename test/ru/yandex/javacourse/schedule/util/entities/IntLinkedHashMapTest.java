@@ -0,0 +1,115 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntLinkedHashMapTest {
+
+    @Test
+    public void put_replaceValueWithoutChangingOrder() {
+        IntLinkedHashMap<String> map = new IntLinkedHashMap<>();
+        assertNull(map.put(2, "two"));
+        assertNull(map.put(1, "one"));
+        assertEquals("two", map.put(2, "TWO"));
+
+        assertEquals(2, map.size());
+        assertEquals("TWO", map.get(2));
+        assertEquals(List.of("TWO", "one"), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void remove_returnOldValueAndMissingKeyIsNull() {
+        IntLinkedHashMap<String> map = new IntLinkedHashMap<>();
+        map.put(7, "seven");
+
+        assertEquals("seven", map.remove(7));
+        assertNull(map.remove(7));
+        assertNull(map.get(7));
+        assertFalse(map.containsKey(7));
+        assertTrue(map.values().isEmpty());
+    }
+
+    @Test
+    public void valuesAfter_continueFromKeyPosition() {
+        IntLinkedHashMap<String> map = new IntLinkedHashMap<>();
+        map.put(5, "five");
+        map.put(1, "one");
+        map.put(3, "three");
+
+        List<String> tail = new ArrayList<>();
+        map.valuesAfter(5).forEachRemaining(tail::add);
+
+        assertEquals(List.of("one", "three"), tail);
+        assertFalse(map.valuesAfter(3).hasNext());
+        assertFalse(map.valuesAfter(42).hasNext());
+    }
+
+    @Test
+    public void putLast_moveExistingKeyToEnd() {
+        IntLinkedHashMap<String> map = new IntLinkedHashMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+        map.put(3, "three");
+
+        assertEquals("one", map.putLast(1, "ONE"));
+        assertNull(map.putLast(4, "four"));
+        map.putLast(4, "FOUR");
+        map.putLast(2, "TWO");
+
+        assertEquals(List.of("three", "ONE", "FOUR", "TWO"), new ArrayList<>(map.values()));
+        assertEquals("ONE", map.get(1));
+        assertEquals(3, map.firstKey());
+    }
+
+    @Test
+    public void forEachLast_visitNewestValuesInOrder() {
+        IntLinkedHashMap<String> map = new IntLinkedHashMap<>();
+        map.put(5, "five");
+        map.put(1, "one");
+        map.put(3, "three");
+        map.remove(5);
+
+        List<String> last = new ArrayList<>();
+        map.forEachLast(1, last::add);
+        assertEquals(List.of("three"), last);
+
+        last.clear();
+        map.forEachLast(10, last::add);
+        assertEquals(List.of("one", "three"), last);
+        assertEquals(1, map.firstKey());
+    }
+
+    @Test
+    public void randomOperations_matchLinkedHashMap() {
+        IntLinkedHashMap<Integer> map = new IntLinkedHashMap<>();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1000) - 500;
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.remove(key), map.remove(key));
+                case 1 -> {
+                    Integer old = expected.remove(key);
+                    expected.put(key, i);
+                    assertEquals(old, map.putLast(key, i));
+                }
+                default -> assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.javacourse.schedule.util.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntLinkedHashSetTest {
+
+    @Test
+    public void add_keepInsertionOrderAndSkipDuplicates() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(1), "duplicate should not be added");
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new int[]{5, 1, 3}, set.toArray());
+        assertEquals("[5, 1, 3]", set.toString());
+    }
+
+    @Test
+    public void remove_keepOrderOfRemainingAndReuseSlots() {
+        IntLinkedHashSet set = new IntLinkedHashSet(2);
+        for (int i = 1; i <= 10; i++) {
+            set.add(i);
+        }
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(5));
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(42), "absent value should not be removed");
+        set.add(5);
+
+        assertArrayEquals(new int[]{2, 3, 4, 6, 7, 8, 9, 5}, set.toArray());
+        assertFalse(set.contains(1));
+        assertTrue(set.contains(5));
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        set.add(1);
+        IntLinkedHashSet copy = new IntLinkedHashSet(set);
+        copy.add(2);
+        set.remove(1);
+
+        assertTrue(set.isEmpty());
+        assertArrayEquals(new int[]{1, 2}, copy.toArray());
+    }
+
+    @Test
+    public void randomOperations_matchLinkedHashSet() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(500) - 250;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.toArray());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.toArray().length);
+    }
+}